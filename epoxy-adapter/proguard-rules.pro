@@ -1,6 +1,8 @@
 # The generated ControllerHelper classes are needed when using AutoModel annotations.
-# Each ControllerHelper is looked up reflectively, so we need to make sure it is
-# kept and its name not obfuscated so the reflective lookup works.
+# Each controller's ControllerHelperFactory, and ControllerHelpers generated without a factory,
+# are looked up reflectively, so we need to make sure they are kept and their names not
+# obfuscated so the reflective lookup works.
+-keep class * implements com.airbnb.epoxy.ControllerHelperFactory { <init>(); }
 -keep class * extends com.airbnb.epoxy.EpoxyController { *; }
 -keep class * extends com.airbnb.epoxy.ControllerHelper { *; }
 -keepclasseswithmembernames class * { @com.airbnb.epoxy.AutoModel <fields>; }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.airbnb.epoxy;
 
 import android.os.Bundle;
+import android.os.Parcelable;
 import android.support.annotation.CallSuper;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.GridLayoutManager.SpanSizeLookup;
@@ -8,6 +9,8 @@ import android.support.v7.widget.RecyclerView;
 import android.view.View;
 import android.view.ViewGroup;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -16,13 +19,15 @@ abstract class BaseEpoxyAdapter extends RecyclerView.Adapter<EpoxyViewHolder> {
 
   private int spanCount = 1;
 
-  private final ViewTypeManager viewTypeManager = new ViewTypeManager();
+  final ViewTypeManager viewTypeManager = new ViewTypeManager();
   /**
    * Keeps track of view holders that are currently bound so we can save their state in {@link
    * #onSaveInstanceState(Bundle)}.
    */
   private final BoundViewHolders boundViewHolders = new BoundViewHolders();
   private ViewHolderState viewHolderState = new ViewHolderState();
+  @Nullable private File viewStateFile;
+  private int viewStateFileAppVersion;
 
   private final SpanSizeLookup spanSizeLookup = new SpanSizeLookup() {
 
@@ -104,7 +109,12 @@ abstract class BaseEpoxyAdapter extends RecyclerView.Adapter<EpoxyViewHolder> {
 
     holder.bind(modelToShow, previouslyBoundModel, payloads, position);
 
-    viewHolderState.restore(holder);
+    try {
+      viewHolderState.restore(holder);
+    } catch (IOException e) {
+      // The view is still shown, just without the state it had before the adapter was recreated
+      onExceptionSwallowed(new IllegalStateException("Unable to read saved view state", e));
+    }
     boundViewHolders.put(holder);
 
     if (diffPayloadsEnabled()) {
@@ -166,6 +176,87 @@ abstract class BaseEpoxyAdapter extends RecyclerView.Adapter<EpoxyViewHolder> {
     return getCurrentModels().get(position);
   }
 
+  /**
+   * Find a current model with the given view type, or null if there is none. The view type is
+   * compared to the one reported by {@link #getItemViewType(int)}, which for models without a
+   * layout or their own view type is a generated one.
+   */
+  @Nullable
+  EpoxyModel<?> findModelWithViewType(int viewType) {
+    for (EpoxyModel<?> model : getCurrentModels()) {
+      if (ViewTypeManager.getViewTypeInternal(model) == viewType) {
+        return model;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Set limits on the view states that are saved for views when they are recycled, and in {@link
+   * #onSaveInstanceState(Bundle)}. When a limit is exceeded the states of the least recently shown
+   * models are dropped first. By default at most 100 states, with a total size of at most 100KB,
+   * are kept.
+   * <p>
+   * The states of models that are removed from the adapter are also dropped when models are
+   * diffed.
+   *
+   * @param maxStateCount The maximum number of saved view states, or 0 for no limit.
+   * @param maxStateBytes The maximum total parceled size of the saved view states, or 0 for no
+   *                      limit.
+   */
+  public void setSavedViewStateLimits(int maxStateCount, int maxStateBytes) {
+    viewHolderState.setLimits(maxStateCount, maxStateBytes);
+  }
+
+  /**
+   * Save view states to the given file in {@link #onSaveInstanceState(Bundle)}, instead of putting
+   * them in the Bundle. The Bundle then only has a small handle to the file, which keeps it well
+   * below the size limit of saved instance state on long lists. When state is restored from the
+   * Bundle, each view's state is only read from the file once the view is bound.
+   * <p>
+   * The file should be in app private storage, such as {@link
+   * android.content.Context#getFilesDir()}, and must not be shared with other adapters. The file is
+   * read and written on the main thread. If it can't be written the states are put in the Bundle
+   * instead, and if it can't be read the views are shown without their saved state. Both cases are
+   * reported to {@link #onExceptionSwallowed(RuntimeException)}.
+   * <p>
+   * The file is only read by the same SDK version that wrote it. Use {@link
+   * #setViewStateFile(File, int)} to also drop files written by another version of the app.
+   *
+   * @param file The file to save view states to, or null to save them in the Bundle.
+   */
+  public void setViewStateFile(@Nullable File file) {
+    setViewStateFile(file, 0);
+  }
+
+  /**
+   * Like {@link #setViewStateFile(File)}, but the file is also only read by the same version of the
+   * app that wrote it, since app classes may parcel their state differently in another version.
+   *
+   * @param file       The file to save view states to, or null to save them in the Bundle.
+   * @param appVersion The version of the app, such as the version code in the app's BuildConfig.
+   */
+  public void setViewStateFile(@Nullable File file, int appVersion) {
+    viewStateFile = file;
+    viewStateFileAppVersion = appVersion;
+  }
+
+  /** An index of the ids of the current models. */
+  ModelIdIndex getModelIdIndex() {
+    return ModelIdIndex.create(getCurrentModels());
+  }
+
+  /**
+   * Drop the saved view states of models that are no longer in the adapter. This should be called
+   * after models are diffed.
+   */
+  void removeViewStatesOfRemovedModels() {
+    if (viewHolderState.size() > 0) {
+      viewHolderState.removeStatesNotIn(getModelIdIndex());
+    }
+  }
+
   @Override
   public void onViewRecycled(EpoxyViewHolder holder) {
     viewHolderState.save(holder);
@@ -217,6 +308,18 @@ abstract class BaseEpoxyAdapter extends RecyclerView.Adapter<EpoxyViewHolder> {
       throw new IllegalStateException("Must have stable ids when saving view holder state");
     }
 
+    if (viewStateFile != null) {
+      try {
+        outState.putParcelable(SAVED_STATE_ARG_VIEW_HOLDERS,
+            viewHolderState.writeToFile(viewStateFile, viewStateFileAppVersion));
+        return;
+      } catch (IOException e) {
+        onExceptionSwallowed(
+            new IllegalStateException("Unable to write view state to " + viewStateFile, e));
+      }
+    }
+
+    viewHolderState.trimToLimits();
     outState.putParcelable(SAVED_STATE_ARG_VIEW_HOLDERS, viewHolderState);
   }
 
@@ -230,11 +333,23 @@ abstract class BaseEpoxyAdapter extends RecyclerView.Adapter<EpoxyViewHolder> {
     }
 
     if (inState != null) {
-      viewHolderState = inState.getParcelable(SAVED_STATE_ARG_VIEW_HOLDERS);
-      if (viewHolderState == null) {
+      Parcelable savedState = inState.getParcelable(SAVED_STATE_ARG_VIEW_HOLDERS);
+      if (savedState == null) {
         throw new IllegalStateException(
             "Tried to restore instance state, but onSaveInstanceState was never called.");
       }
+
+      ViewHolderState restoredState;
+      if (savedState instanceof ViewStateFile.Handle) {
+        restoredState = new ViewHolderState();
+        restoredState.setStateFile(
+            new ViewStateFile((ViewStateFile.Handle) savedState, viewStateFileAppVersion));
+      } else {
+        restoredState = (ViewHolderState) savedState;
+      }
+
+      restoredState.copyLimitsFrom(viewHolderState);
+      viewHolderState = restoredState;
     }
   }
 
@@ -11,7 +11,9 @@ public abstract class ControllerHelper<T extends EpoxyController> {
   public abstract void resetAutoModels();
 
   protected void validateModelHashCodesHaveNotChanged(T controller) {
-    List<EpoxyModel<?>> currentModels = controller.getAdapter().getCopyOfModels();
+    // This runs on the model building thread, which may be a background thread, so the controller's
+    // last built models are read instead of the adapter's models that are set on the main thread.
+    List<EpoxyModel<?>> currentModels = controller.getLastBuiltModels();
 
     for (int i = 0; i < currentModels.size(); i++) {
       EpoxyModel model = currentModels.get(i);
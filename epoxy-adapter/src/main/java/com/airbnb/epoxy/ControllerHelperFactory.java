@@ -0,0 +1,19 @@
+package com.airbnb.epoxy;
+
+/**
+ * Creates the generated {@link ControllerHelper} of a controller class. The annotation processor
+ * generates one implementation next to the helper of each controller with {@link
+ * com.airbnb.epoxy.AutoModel} fields, so that helpers can be created without reflection. Each is
+ * named after its controller class, so factories from different modules never share a name. This is
+ * only implemented by the generated classes created by the annotation processor.
+ */
+public interface ControllerHelperFactory {
+  /** Added to the name of a controller class to get the name of its generated factory. */
+  String GENERATED_CLASS_SUFFIX = "_EpoxyHelperFactory";
+
+  /**
+   * Create the helper for a controller, which is an instance of the factory's controller class or
+   * of a subclass of it.
+   */
+  ControllerHelper<?> createHelper(EpoxyController controller);
+}
@@ -4,65 +4,129 @@ import android.support.annotation.Nullable;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Looks up a generated {@link ControllerHelper} implementation for a given adapter.
  * If the adapter has no {@link com.airbnb.epoxy.AutoModel} models then a No-Op implementation will
  * be returned.
+ * <p>
+ * Helpers are created through the generated {@link ControllerHelperFactory} of the controller
+ * class. The factory is loaded reflectively once and cached for each controller class, so creating
+ * a controller's helper after the first time is a direct call. Helpers generated without a factory,
+ * by older versions of the annotation processor, are still created through their constructor.
  */
 class ControllerHelperLookup {
   private static final String GENERATED_HELPER_CLASS_SUFFIX = "_EpoxyHelper";
-  private static final Map<Class<?>, Constructor<?>> BINDINGS = new LinkedHashMap<>();
+  /**
+   * Controllers may be created on several threads at once, so the lookups are cached in a
+   * concurrent map. Two threads may look up the same class at the same time, in which case they
+   * find the same result and either one is cached.
+   */
+  private static final Map<Class<?>, ControllerHelperFactory> FACTORIES =
+      new ConcurrentHashMap<>();
   private static final NoOpControllerHelper NO_OP_CONTROLLER_HELPER = new NoOpControllerHelper();
+  private static final ControllerHelperFactory NO_OP_FACTORY = new ControllerHelperFactory() {
+    @Override
+    public ControllerHelper<?> createHelper(EpoxyController controller) {
+      return NO_OP_CONTROLLER_HELPER;
+    }
+  };
 
   static ControllerHelper getHelperForController(EpoxyController controller) {
-    Constructor<?> constructor = findConstructorForClass(controller.getClass());
-    if (constructor == null) {
-      return NO_OP_CONTROLLER_HELPER;
+    Class<?> controllerClass = controller.getClass();
+    ControllerHelperFactory factory = FACTORIES.get(controllerClass);
+    if (factory == null) {
+      factory = findFactoryForClass(controllerClass);
+      FACTORIES.put(controllerClass, factory);
     }
 
-    try {
-      return (ControllerHelper) constructor.newInstance(controller);
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException("Unable to invoke " + constructor, e);
-    } catch (InstantiationException e) {
-      throw new RuntimeException("Unable to invoke " + constructor, e);
-    } catch (InvocationTargetException e) {
-      Throwable cause = e.getCause();
-      if (cause instanceof RuntimeException) {
-        throw (RuntimeException) cause;
+    return factory.createHelper(controller);
+  }
+
+  /**
+   * Find the factory for the helper of this class, or of the closest superclass that has a helper.
+   */
+  private static ControllerHelperFactory findFactoryForClass(Class<?> controllerClass) {
+    for (Class<?> cls = controllerClass; !isFrameworkClass(cls); cls = cls.getSuperclass()) {
+      ControllerHelperFactory factory = findGeneratedFactoryForClass(cls);
+      if (factory != null) {
+        return factory;
       }
-      if (cause instanceof Error) {
-        throw (Error) cause;
+
+      Constructor<?> helperCtor = findLegacyConstructorForClass(cls);
+      if (helperCtor != null) {
+        return new ConstructorFactory(helperCtor);
       }
-      throw new RuntimeException("Unable to get Epoxy helper class.", cause);
     }
+
+    return NO_OP_FACTORY;
   }
 
-  @Nullable
-  private static Constructor<?> findConstructorForClass(Class<?> controllerClass) {
-    Constructor<?> helperCtor = BINDINGS.get(controllerClass);
-    if (helperCtor != null || BINDINGS.containsKey(controllerClass)) {
-      return helperCtor;
+  private static boolean isFrameworkClass(Class<?> cls) {
+    if (cls == null || cls == EpoxyController.class) {
+      return true;
     }
 
-    String clsName = controllerClass.getName();
-    if (clsName.startsWith("android.") || clsName.startsWith("java.")) {
+    String clsName = cls.getName();
+    return clsName.startsWith("android.") || clsName.startsWith("java.");
+  }
+
+  @Nullable
+  private static ControllerHelperFactory findGeneratedFactoryForClass(Class<?> controllerClass) {
+    String factoryName = controllerClass.getName() + ControllerHelperFactory.GENERATED_CLASS_SUFFIX;
+    try {
+      return (ControllerHelperFactory) Class.forName(factoryName).newInstance();
+    } catch (ClassNotFoundException e) {
       return null;
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Unable to create " + factoryName, e);
+    } catch (InstantiationException e) {
+      throw new RuntimeException("Unable to create " + factoryName, e);
     }
+  }
 
+  /** Find the constructor of a helper that was generated without a factory, if there is one. */
+  @Nullable
+  private static Constructor<?> findLegacyConstructorForClass(Class<?> controllerClass) {
+    String clsName = controllerClass.getName();
     try {
       Class<?> bindingClass = Class.forName(clsName + GENERATED_HELPER_CLASS_SUFFIX);
-      //noinspection unchecked
-      helperCtor = bindingClass.getConstructor(controllerClass);
+      return bindingClass.getConstructor(controllerClass);
     } catch (ClassNotFoundException e) {
-      helperCtor = findConstructorForClass(controllerClass.getSuperclass());
+      return null;
     } catch (NoSuchMethodException e) {
       throw new RuntimeException("Unable to find Epoxy Helper constructor for " + clsName, e);
     }
-    BINDINGS.put(controllerClass, helperCtor);
-    return helperCtor;
+  }
+
+  /** Creates helpers that were generated without a factory through their constructor. */
+  private static class ConstructorFactory implements ControllerHelperFactory {
+    private final Constructor<?> constructor;
+
+    ConstructorFactory(Constructor<?> constructor) {
+      this.constructor = constructor;
+    }
+
+    @Override
+    public ControllerHelper<?> createHelper(EpoxyController controller) {
+      try {
+        return (ControllerHelper<?>) constructor.newInstance(controller);
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException("Unable to invoke " + constructor, e);
+      } catch (InstantiationException e) {
+        throw new RuntimeException("Unable to invoke " + constructor, e);
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new RuntimeException("Unable to get Epoxy helper class.", cause);
+      }
+    }
   }
 }
@@ -1,5 +1,7 @@
 package com.airbnb.epoxy;
 
+import android.support.annotation.Nullable;
+
 /**
  * This ArrayList subclass enforces that no changes are made to the list after {@link #freeze()} is
  * called. This prevents model interceptors from storing the list and trying to change it later. We
@@ -23,6 +25,9 @@ class ControllerModelList extends ModelList {
     }
   };
 
+  /** Index of the model ids, created once the list is frozen and the index is first needed. */
+  @Nullable private ModelIdIndex idIndex;
+
   ControllerModelList(int expectedModelCount) {
     super(expectedModelCount);
     pauseNotifications();
@@ -32,4 +37,17 @@ class ControllerModelList extends ModelList {
     setObserver(OBSERVER);
     resumeNotifications();
   }
+
+  /** Use an index that was already created for the models in this list. */
+  void setIdIndex(ModelIdIndex idIndex) {
+    this.idIndex = idIndex;
+  }
+
+  /** An index of the ids of the models in this list. Only valid once the list is frozen. */
+  ModelIdIndex getIdIndex() {
+    if (idIndex == null) {
+      idIndex = ModelIdIndex.create(this);
+    }
+    return idIndex;
+  }
 }
@@ -0,0 +1,124 @@
+package com.airbnb.epoxy;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The move detection used by {@link DiffStrategy#DEFAULT}. This walks through the old and new lists
+ * together and moves whichever of the two current items is farthest from its correct position.
+ * Positions are kept up to date by replaying the moves made so far on each item as it is checked.
+ * <p>
+ * This does well when few items have moved, but replaying moves makes it slow for lists with many
+ * moves. Recyclerview does not support batching moves, so each one is a separate operation.
+ */
+class DefaultMoveDetector implements MoveDetector {
+
+  @Override
+  public void collectMoves(List<ModelState> oldStateList, List<ModelState> currentStateList,
+      ModelStatePool statePool, UpdateOpHelper helper) {
+    // This walks through both the new and old list simultaneous and checks for position changes.
+    Iterator<ModelState> oldItemIterator = oldStateList.iterator();
+    ModelState nextOldItem = null;
+
+    for (ModelState newItem : currentStateList) {
+      if (newItem.pair == null) {
+        // This item was inserted. However, insertions are done at the item's final position, and
+        // aren't smart about inserting at a different position to take future moves into account.
+        // As the old state list is updated to reflect moves, it needs to also consider insertions
+        // affected by those moves in order for the final change set to be correct
+        if (helper.moves.isEmpty()) {
+          // There have been no moves, so the item is still at it's correct position
+          continue;
+        } else {
+          // There have been moves, so the old list needs to take this inserted item
+          // into account. The old list doesn't have this item inserted into it
+          // (for optimization purposes), but we can create a pair for this item to
+          // track its position in the old list and move it back to its final position if necessary
+          statePool.pairWithSelf(newItem);
+        }
+      }
+
+      // We could iterate through only the new list and move each
+      // item that is out of place, however in cases such as moving the first item
+      // to the end, that strategy would do many moves to move all
+      // items up one instead of doing one move to move the first item to the end.
+      // To avoid this we compare the old item to the new item at
+      // each index and move the one that is farthest from its correct position.
+      // We only move on from a new item once its pair is placed in
+      // the correct spot. Since we move from start to end, all new items we've
+      // already iterated through are guaranteed to have their pair
+      // be already in the right spot, which won't be affected by future MOVEs.
+      if (nextOldItem == null) {
+        nextOldItem = DiffHelper.getNextItemWithPair(oldItemIterator);
+
+        // We've already iterated through all old items and moved each
+        // item once. However, subsequent moves may have shifted an item out of
+        // its correct space once it was already moved. We finish
+        // iterating through all the new items to ensure everything is still correct
+        if (nextOldItem == null) {
+          nextOldItem = newItem.pair;
+        }
+      }
+
+      while (nextOldItem != null) {
+        // Make sure the positions are updated to the latest
+        // move operations before we calculate the next move
+        updateItemPosition(newItem.pair, helper.moves);
+        updateItemPosition(nextOldItem, helper.moves);
+
+        // The item is the same and its already in the correct place
+        if (newItem.id == nextOldItem.id && newItem.position == nextOldItem.position) {
+          nextOldItem = null;
+          break;
+        }
+
+        int newItemDistance = newItem.pair.position - newItem.position;
+        int oldItemDistance = nextOldItem.pair.position - nextOldItem.position;
+
+        // Both items are already in the correct position
+        if (newItemDistance == 0 && oldItemDistance == 0) {
+          nextOldItem = null;
+          break;
+        }
+
+        if (oldItemDistance > newItemDistance) {
+          helper.move(nextOldItem.position, nextOldItem.pair.position);
+
+          nextOldItem.position = nextOldItem.pair.position;
+          nextOldItem.lastMoveOp = helper.getNumMoves();
+
+          nextOldItem = DiffHelper.getNextItemWithPair(oldItemIterator);
+        } else {
+          helper.move(newItem.pair.position, newItem.position);
+
+          newItem.pair.position = newItem.position;
+          newItem.pair.lastMoveOp = helper.getNumMoves();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Apply the movement operations to the given item to update its position. Only applies the
+   * operations that have not been applied yet, and stores how many operations have been applied so
+   * we know which ones to apply next time.
+   */
+  private void updateItemPosition(ModelState item, List<UpdateOp> moveOps) {
+    int size = moveOps.size();
+
+    for (int i = item.lastMoveOp; i < size; i++) {
+      UpdateOp moveOp = moveOps.get(i);
+      int fromPosition = moveOp.positionStart;
+      int toPosition = moveOp.itemCount;
+
+      if (item.position > fromPosition && item.position <= toPosition) {
+        item.position--;
+      } else if (item.position < fromPosition && item.position >= toPosition) {
+        item.position++;
+      }
+    }
+
+    item.lastMoveOp = size;
+  }
+}
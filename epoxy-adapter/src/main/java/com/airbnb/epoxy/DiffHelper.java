@@ -5,21 +5,26 @@ import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Helper to track changes in the models list.
  */
 class DiffHelper {
   private ArrayList<ModelState> oldStateList = new ArrayList<>();
-  // Using a HashMap instead of a LongSparseArray to
-  // have faster look up times at the expense of memory
-  private Map<Long, ModelState> oldStateMap = new HashMap<>();
+  // Using a primitive keyed hash map instead of a LongSparseArray to have faster look up times at
+  // the expense of memory. The maps are swapped and reused for each diff to avoid allocations.
+  private ModelStateMap oldStateMap = new ModelStateMap();
   private ArrayList<ModelState> currentStateList = new ArrayList<>();
-  private Map<Long, ModelState> currentStateMap = new HashMap<>();
+  private ModelStateMap currentStateMap = new ModelStateMap();
+  /** Holds the new states of the changed range of models while it is diffed. */
+  private final ArrayList<ModelState> changedRangeStateList = new ArrayList<>();
+  private final ModelStatePool statePool = new ModelStatePool();
+  private DiffStrategy diffStrategy = DiffStrategy.DEFAULT;
+  private MoveDetector moveDetector = diffStrategy.createMoveDetector();
+  /** The maximum number of operations a diff may notify, or 0 if there is no limit. */
+  private int operationBudget;
   private final BaseEpoxyAdapter adapter;
   private final boolean immutableModels;
   private final DifferModelListObserver modelListObserver = new DifferModelListObserver();
@@ -46,6 +51,14 @@ class DiffHelper {
     }
   }
 
+  /**
+   * Stop tracking the changes that the adapter notifies, for an adapter that no longer diffs its
+   * models and notifies changes in its own way.
+   */
+  void stopObservingAdapter() {
+    adapter.unregisterAdapterDataObserver(observer);
+  }
+
   private final RecyclerView.AdapterDataObserver observer = new RecyclerView.AdapterDataObserver() {
     @Override
     public void onChanged() {
@@ -145,6 +158,32 @@ class DiffHelper {
     }
   };
 
+  /**
+   * Set the maximum number of operations a diff may notify. If a diff needs more operations than
+   * this, such as when most of a long list is reordered, then the changed items are replaced with
+   * a few range removals and insertions instead. Notifying many individual operations is slower
+   * than replacing the range, and the resulting animations aren't useful anyway.
+   *
+   * @param operationBudget The maximum number of operations, or 0 for no limit.
+   */
+  void setOperationBudget(int operationBudget) {
+    if (operationBudget < 0) {
+      throw new IllegalArgumentException("Operation budget cannot be negative: " + operationBudget);
+    }
+
+    this.operationBudget = operationBudget;
+  }
+
+  /** Set the strategy used to diff models from now on. */
+  void setDiffStrategy(DiffStrategy diffStrategy) {
+    if (this.diffStrategy == diffStrategy) {
+      return;
+    }
+
+    this.diffStrategy = diffStrategy;
+    moveDetector = diffStrategy.createMoveDetector();
+  }
+
   /**
    * Set the current list of models. The diff callbacks will be notified of the changes between the
    * current list and the last list that was set.
@@ -181,6 +220,32 @@ class DiffHelper {
     notifiedOfStructuralChanges = false;
   }
 
+  /**
+   * Like {@link #notifyModelChanges()}, but only the given range of models is diffed. The models
+   * before and after the range must be the same as when the models were last diffed, so their
+   * states are kept without checking them.
+   *
+   * @param rangeStart         The position of the first model in the range.
+   * @param previousRangeCount How many models the range had when models were last diffed.
+   */
+  void notifyModelRangeChanged(int rangeStart, int previousRangeCount) {
+    int suffixCount = currentStateList.size() - rangeStart - previousRangeCount;
+    if (rangeStart < 0 || previousRangeCount < 0 || suffixCount < 0
+        || adapter.getCurrentModels().size() - suffixCount < rangeStart) {
+      throw new IllegalArgumentException("Range does not match the current models");
+    }
+
+    UpdateOpHelper updateOpHelper = new UpdateOpHelper();
+    buildChangedRangeDiff(rangeStart, suffixCount, updateOpHelper);
+
+    adapter.unregisterAdapterDataObserver(observer);
+    notifyChanges(updateOpHelper);
+    adapter.registerAdapterDataObserver(observer);
+
+    modelListObserver.reset();
+    notifiedOfStructuralChanges = false;
+  }
+
   /**
    * This updates our state list with the current model hashes and collects any update
    * notifications. Used only when the state list is already up to date with the adapter models.
@@ -235,32 +300,307 @@ class DiffHelper {
    * #currentStateList}.
    */
   private UpdateOpHelper buildDiff(UpdateOpHelper updateOpHelper) {
-    prepareStateForDiff();
+    // Most changes only affect part of the list, such as appending items or updating a single item.
+    // The unchanged items at the start and end of the list can keep their states, and only the
+    // items between them need the full diff.
+    List<? extends EpoxyModel<?>> models = adapter.getCurrentModels();
+    int maxUnchangedCount = Math.min(currentStateList.size(), models.size());
+
+    int prefixCount = 0;
+    while (prefixCount < maxUnchangedCount
+        && updateStateIfUnchanged(currentStateList.get(prefixCount), models.get(prefixCount))) {
+      prefixCount++;
+    }
+
+    int suffixCount = 0;
+    int lastOldPosition = currentStateList.size() - 1;
+    int lastNewPosition = models.size() - 1;
+    while (suffixCount < maxUnchangedCount - prefixCount
+        && updateStateIfUnchanged(currentStateList.get(lastOldPosition - suffixCount),
+        models.get(lastNewPosition - suffixCount))) {
+      suffixCount++;
+    }
+
+    if (prefixCount == 0 && suffixCount == 0) {
+      prepareStateForDiff();
+      collectOperations(oldStateList, currentStateList, currentStateMap, statePool,
+          moveDetector, updateOpHelper);
+    } else {
+      buildChangedRangeDiff(prefixCount, suffixCount, updateOpHelper);
+    }
+
+    return updateOpHelper;
+  }
 
+  /**
+   * If the model has the same id as the given state and is unchanged then the state is updated to
+   * represent the new model, so it can be kept for the new list.
+   *
+   * @return True if the model is unchanged, otherwise false and the state is not modified.
+   */
+  private boolean updateStateIfUnchanged(ModelState state, EpoxyModel<?> model) {
+    if (state.id != model.id()) {
+      return false;
+    }
+
+    if (immutableModels) {
+      if (state.model.isDebugValidationEnabled()) {
+        state.model.validateStateHasNotChangedSinceAdded(
+            "Model was changed before it could be diffed.", state.position);
+      }
+
+      // A model reused from a previous build is the same instance, so it can't have changed
+      if (state.model != model && !state.model.equals(model)) {
+        return false;
+      }
+
+      state.model = model;
+    } else if (state.hashCode != model.hashCode()) {
+      return false;
+    }
+
+    model.addedToAdapter = true;
+    // The pairing from the last diff isn't needed anymore
+    state.pair = null;
+    return true;
+  }
+
+  /**
+   * Diff only the models between the given number of unchanged models at the start and end of the
+   * list. The states of the unchanged models are kept, while the states of the changed range are
+   * replaced. The diff runs on the changed range as if it was the whole list, and the resulting
+   * operations are then offset to the start of the range.
+   */
+  private void buildChangedRangeDiff(int prefixCount, int suffixCount, UpdateOpHelper helper) {
+    int oldRangeEnd = currentStateList.size() - suffixCount;
+    int newRangeEnd = adapter.getCurrentModels().size() - suffixCount;
+
+    // The states from the last diff aren't needed anymore. Pairings with them are cleared as the
+    // states for this diff are set up.
+    statePool.recycle(oldStateList);
+    statePool.recycleSelfPairedStates();
+    oldStateList.clear();
+    oldStateMap.clear();
+
+    // The states of the changed range become the old states for this diff
+    List<ModelState> changedStates = currentStateList.subList(prefixCount, oldRangeEnd);
+    for (ModelState state : changedStates) {
+      currentStateMap.remove(state.id);
+      state.pair = null;
+      state.position -= prefixCount;
+    }
+    oldStateList.addAll(changedStates);
+    changedStates.clear();
+
+    // States are created with their position in the full list so that duplicate ids are reported
+    // at the correct positions
+    changedRangeStateList.ensureCapacity(newRangeEnd - prefixCount);
+    for (int i = prefixCount; i < newRangeEnd; i++) {
+      changedRangeStateList.add(createStateForPosition(i));
+    }
+
+    for (ModelState state : changedRangeStateList) {
+      state.position -= prefixCount;
+    }
+
+    collectOperations(oldStateList, changedRangeStateList, currentStateMap, statePool,
+        moveDetector, helper);
+    helper.offsetPositions(prefixCount);
+
+    for (ModelState state : changedRangeStateList) {
+      state.position += prefixCount;
+    }
+
+    currentStateList.addAll(prefixCount, changedRangeStateList);
+    changedRangeStateList.clear();
+
+    int positionChange = newRangeEnd - oldRangeEnd;
+    if (positionChange != 0) {
+      int size = currentStateList.size();
+      for (int i = newRangeEnd; i < size; i++) {
+        currentStateList.get(i).position += positionChange;
+      }
+    }
+  }
+
+  /**
+   * Runs the full diff between the two given state lists. The new states must already be in the
+   * map, and neither list may have any pairings set.
+   */
+  private void collectOperations(List<ModelState> oldStateList, List<ModelState> currentStateList,
+      ModelStateMap currentStateMap, ModelStatePool statePool, MoveDetector moveDetector,
+      UpdateOpHelper updateOpHelper) {
     // The general approach is to first search for removals, then additions, and lastly changes.
     // Focusing on one type of operation at a time makes it easy to coalesce batch changes.
     // When we identify an operation and add it to the
     // result list we update the positions of items in the oldStateList to reflect
     // the change, this way subsequent operations will use the correct, updated positions.
-    collectRemovals(updateOpHelper);
+    collectRemovals(oldStateList, currentStateMap, updateOpHelper);
 
     // Only need to check for insertions if new list is bigger
     boolean hasInsertions =
         oldStateList.size() - updateOpHelper.getNumRemovals() != currentStateList.size();
     if (hasInsertions) {
-      collectInsertions(updateOpHelper);
+      collectInsertions(oldStateList, currentStateList, updateOpHelper);
     }
 
-    collectMoves(updateOpHelper);
-    collectChanges(updateOpHelper);
+    moveDetector.collectMoves(oldStateList, currentStateList, statePool, updateOpHelper);
 
-    return updateOpHelper;
+    // Changes are only collected if the structural changes fit in the budget, since replacing the
+    // list collects its own changes
+    if (!isOverOperationBudget(updateOpHelper)) {
+      collectChanges(currentStateList, updateOpHelper);
+    }
+
+    if (isOverOperationBudget(updateOpHelper)) {
+      collectRangeReplacement(oldStateList, currentStateList, updateOpHelper);
+    }
+  }
+
+  private boolean isOverOperationBudget(UpdateOpHelper updateOpHelper) {
+    return operationBudget > 0 && updateOpHelper.opList.size() > operationBudget;
+  }
+
+  /**
+   * Replace the operations in the helper with range removals and insertions that swap the old
+   * items for the new ones. Items that have the same id at the same position in both lists are
+   * kept and updated if they changed, as long as that stays within the operation budget, since
+   * updates can use payloads to rebind views more efficiently. Otherwise the whole list is
+   * replaced.
+   */
+  private void collectRangeReplacement(List<ModelState> oldStateList,
+      List<ModelState> currentStateList, UpdateOpHelper helper) {
+    helper.reset();
+
+    int oldItemCount = oldStateList.size();
+    int newItemCount = currentStateList.size();
+    int commonItemCount = Math.min(oldItemCount, newItemCount);
+
+    // Replaced ranges have the same size in both lists, so the positions of following items are
+    // the same as in the new list
+    int replaceStart = -1;
+    for (int i = 0; i < commonItemCount; i++) {
+      ModelState previousItem = oldStateList.get(i);
+      ModelState newItem = currentStateList.get(i);
+
+      if (previousItem.id != newItem.id) {
+        if (replaceStart == -1) {
+          replaceStart = i;
+        }
+        continue;
+      }
+
+      if (replaceStart != -1) {
+        replaceRange(replaceStart, i, i, helper);
+        replaceStart = -1;
+      }
+
+      if (hasModelChanged(previousItem, newItem)) {
+        helper.update(i, previousItem.model);
+      }
+    }
+
+    // The remaining items differ in count, so they are replaced together with any range that
+    // reaches the end of the shorter list
+    replaceRange(replaceStart == -1 ? commonItemCount : replaceStart, oldItemCount, newItemCount,
+        helper);
+
+    if (isOverOperationBudget(helper)) {
+      helper.reset();
+      replaceRange(0, oldItemCount, newItemCount, helper);
+    }
+  }
+
+  private static void replaceRange(int start, int oldEnd, int newEnd, UpdateOpHelper helper) {
+    if (oldEnd > start) {
+      helper.remove(start, oldEnd - start);
+    }
+
+    if (newEnd > start) {
+      helper.add(start, newEnd - start);
+    }
+  }
+
+  /**
+   * Calculates the changes between the two given model lists without touching the adapter or any
+   * state kept by this helper, so it is safe to call from a background thread. Neither list may be
+   * modified while the diff is calculated, and the previous models must be the models currently
+   * set on the adapter when the result is applied with {@link #applyDiff(DiffResult)}.
+   */
+  DiffResult calculateDiff(List<? extends EpoxyModel<?>> previousModels,
+      List<? extends EpoxyModel<?>> newModels) {
+    // Our pool and move detector can't be shared with other threads, so this diff gets its own
+    ModelStatePool statePool = new ModelStatePool();
+    MoveDetector moveDetector = diffStrategy.createMoveDetector();
+
+    int previousModelCount = previousModels.size();
+    ArrayList<ModelState> previousStateList = new ArrayList<>(previousModelCount);
+    for (int i = 0; i < previousModelCount; i++) {
+      previousStateList.add(statePool.obtain(previousModels.get(i), i, immutableModels));
+    }
+
+    int newModelCount = newModels.size();
+    ArrayList<ModelState> newStateList = new ArrayList<>(newModelCount);
+    ModelStateMap newStateMap = new ModelStateMap(newModelCount);
+    for (int i = 0; i < newModelCount; i++) {
+      newStateList.add(createStateForPosition(newModels, i, newStateMap, statePool));
+    }
+
+    UpdateOpHelper updateOpHelper = new UpdateOpHelper();
+    collectOperations(previousStateList, newStateList, newStateMap, statePool, moveDetector,
+        updateOpHelper);
+
+    return new DiffResult(newStateList, newStateMap, updateOpHelper);
+  }
+
+  /**
+   * Notify the adapter of the changes in a result from {@link #calculateDiff(List, List)}. This
+   * must be called on the main thread, immediately after the adapter switches to the new models
+   * that were diffed.
+   */
+  void applyDiff(DiffResult result) {
+    // The diffed states become our current state, so that following diffs are done against them
+    statePool.recycle(oldStateList);
+    statePool.recycleSelfPairedStates();
+    statePool.recycle(currentStateList);
+    oldStateList.clear();
+    oldStateMap.clear();
+    currentStateList = result.newStateList;
+    currentStateMap = result.newStateMap;
+
+    adapter.unregisterAdapterDataObserver(observer);
+    notifyChanges(result.updateOpHelper);
+    adapter.registerAdapterDataObserver(observer);
+
+    modelListObserver.reset();
+    notifiedOfStructuralChanges = false;
+  }
+
+  /**
+   * The changes between two model lists, calculated by {@link #calculateDiff(List, List)} and
+   * waiting to be applied.
+   */
+  static class DiffResult {
+    private final ArrayList<ModelState> newStateList;
+    private final ModelStateMap newStateMap;
+    private final UpdateOpHelper updateOpHelper;
+
+    private DiffResult(ArrayList<ModelState> newStateList, ModelStateMap newStateMap,
+        UpdateOpHelper updateOpHelper) {
+      this.newStateList = newStateList;
+      this.newStateMap = newStateMap;
+      this.updateOpHelper = updateOpHelper;
+    }
   }
 
   private void prepareStateForDiff() {
     // We use a list of the models as well as a map by their id,
     // so we can easily find them by both position and id
 
+    // The states from two diffs ago aren't needed anymore. The pairings they were part of are
+    // cleared below, so they can be reused for the new states.
+    statePool.recycle(oldStateList);
+    statePool.recycleSelfPairedStates();
     oldStateList.clear();
     oldStateMap.clear();
 
@@ -269,7 +609,7 @@ class DiffHelper {
     oldStateList = currentStateList;
     currentStateList = tempList;
 
-    Map<Long, ModelState> tempMap = oldStateMap;
+    ModelStateMap tempMap = oldStateMap;
     oldStateMap = currentStateMap;
     currentStateMap = tempMap;
 
@@ -281,6 +621,7 @@ class DiffHelper {
 
     int modelCount = adapter.getCurrentModels().size();
     currentStateList.ensureCapacity(modelCount);
+    currentStateMap.ensureCapacity(modelCount);
 
     for (int i = 0; i < modelCount; i++) {
       currentStateList.add(createStateForPosition(i));
@@ -288,14 +629,20 @@ class DiffHelper {
   }
 
   private ModelState createStateForPosition(int position) {
-    EpoxyModel<?> model = adapter.getCurrentModels().get(position);
+    return createStateForPosition(adapter.getCurrentModels(), position, currentStateMap,
+        statePool);
+  }
+
+  private ModelState createStateForPosition(List<? extends EpoxyModel<?>> models, int position,
+      ModelStateMap stateMap, ModelStatePool statePool) {
+    EpoxyModel<?> model = models.get(position);
     model.addedToAdapter = true;
-    ModelState state = ModelState.build(model, position, immutableModels);
+    ModelState state = statePool.obtain(model, position, immutableModels);
 
-    ModelState previousValue = currentStateMap.put(state.id, state);
+    ModelState previousValue = stateMap.put(state);
     if (previousValue != null) {
       int previousPosition = previousValue.position;
-      EpoxyModel<?> previousModel = adapter.getCurrentModels().get(previousPosition);
+      EpoxyModel<?> previousModel = models.get(previousPosition);
       throw new IllegalStateException("Two models have the same ID. ID's must be unique!"
           + " Model at position " + position + ": " + model
           + " Model at position " + previousPosition + ": " + previousModel);
@@ -309,7 +656,8 @@ class DiffHelper {
    * walk through the {@link #oldStateList} and check for items that don't exist in the new list.
    * Walking through it in order makes it easy to batch adjacent removals.
    */
-  private void collectRemovals(UpdateOpHelper helper) {
+  private void collectRemovals(List<ModelState> oldStateList,
+      ModelStateMap currentStateMap, UpdateOpHelper helper) {
     for (ModelState state : oldStateList) {
       // Update the position of the item to take into account previous removals,
       // so that future operations will reference the correct position
@@ -333,7 +681,8 @@ class DiffHelper {
    * walk through the {@link #currentStateList} and check for items that don't exist in the old
    * list. Walking through it in order makes it easy to batch adjacent insertions.
    */
-  private void collectInsertions(UpdateOpHelper helper) {
+  private void collectInsertions(List<ModelState> oldStateList,
+      List<ModelState> currentStateList, UpdateOpHelper helper) {
     Iterator<ModelState> oldItemIterator = oldStateList.iterator();
 
     for (ModelState itemToInsert : currentStateList) {
@@ -353,151 +702,44 @@ class DiffHelper {
   /**
    * Check if any items have had their values changed, batching if possible.
    */
-  private void collectChanges(UpdateOpHelper helper) {
+  private void collectChanges(List<ModelState> currentStateList, UpdateOpHelper helper) {
     for (ModelState newItem : currentStateList) {
       ModelState previousItem = newItem.pair;
       if (previousItem == null) {
         continue;
       }
 
-      // We use equals when we know the models are immutable and available, otherwise we have to
-      // rely on the stored hashCode
-      boolean modelChanged;
-      if (immutableModels) {
-        // Make sure that the old model hasn't changed, otherwise comparing it with the new one
-        // won't be accurate.
-        if (previousItem.model.isDebugValidationEnabled()) {
-          previousItem.model
-              .validateStateHasNotChangedSinceAdded("Model was changed before it could be diffed.",
-                  previousItem.position);
-        }
-
-        modelChanged = !previousItem.model.equals(newItem.model);
-      } else {
-        modelChanged = previousItem.hashCode != newItem.hashCode;
-      }
-
-      if (modelChanged) {
+      if (hasModelChanged(previousItem, newItem)) {
         helper.update(newItem.position, previousItem.model);
       }
     }
   }
 
-  /**
-   * Check which items have had a position changed. Recyclerview does not support batching these.
-   */
-  private void collectMoves(UpdateOpHelper helper) {
-    // This walks through both the new and old list simultaneous and checks for position changes.
-    Iterator<ModelState> oldItemIterator = oldStateList.iterator();
-    ModelState nextOldItem = null;
-
-    for (ModelState newItem : currentStateList) {
-      if (newItem.pair == null) {
-        // This item was inserted. However, insertions are done at the item's final position, and
-        // aren't smart about inserting at a different position to take future moves into account.
-        // As the old state list is updated to reflect moves, it needs to also consider insertions
-        // affected by those moves in order for the final change set to be correct
-        if (helper.moves.isEmpty()) {
-          // There have been no moves, so the item is still at it's correct position
-          continue;
-        } else {
-          // There have been moves, so the old list needs to take this inserted item
-          // into account. The old list doesn't have this item inserted into it
-          // (for optimization purposes), but we can create a pair for this item to
-          // track its position in the old list and move it back to its final position if necessary
-          newItem.pairWithSelf();
-        }
-      }
-
-      // We could iterate through only the new list and move each
-      // item that is out of place, however in cases such as moving the first item
-      // to the end, that strategy would do many moves to move all
-      // items up one instead of doing one move to move the first item to the end.
-      // To avoid this we compare the old item to the new item at
-      // each index and move the one that is farthest from its correct position.
-      // We only move on from a new item once its pair is placed in
-      // the correct spot. Since we move from start to end, all new items we've
-      // already iterated through are guaranteed to have their pair
-      // be already in the right spot, which won't be affected by future MOVEs.
-      if (nextOldItem == null) {
-        nextOldItem = getNextItemWithPair(oldItemIterator);
-
-        // We've already iterated through all old items and moved each
-        // item once. However, subsequent moves may have shifted an item out of
-        // its correct space once it was already moved. We finish
-        // iterating through all the new items to ensure everything is still correct
-        if (nextOldItem == null) {
-          nextOldItem = newItem.pair;
-        }
-      }
-
-      while (nextOldItem != null) {
-        // Make sure the positions are updated to the latest
-        // move operations before we calculate the next move
-        updateItemPosition(newItem.pair, helper.moves);
-        updateItemPosition(nextOldItem, helper.moves);
-
-        // The item is the same and its already in the correct place
-        if (newItem.id == nextOldItem.id && newItem.position == nextOldItem.position) {
-          nextOldItem = null;
-          break;
-        }
-
-        int newItemDistance = newItem.pair.position - newItem.position;
-        int oldItemDistance = nextOldItem.pair.position - nextOldItem.position;
-
-        // Both items are already in the correct position
-        if (newItemDistance == 0 && oldItemDistance == 0) {
-          nextOldItem = null;
-          break;
-        }
-
-        if (oldItemDistance > newItemDistance) {
-          helper.move(nextOldItem.position, nextOldItem.pair.position);
-
-          nextOldItem.position = nextOldItem.pair.position;
-          nextOldItem.lastMoveOp = helper.getNumMoves();
-
-          nextOldItem = getNextItemWithPair(oldItemIterator);
-        } else {
-          helper.move(newItem.pair.position, newItem.position);
-
-          newItem.pair.position = newItem.position;
-          newItem.pair.lastMoveOp = helper.getNumMoves();
-          break;
-        }
+  private boolean hasModelChanged(ModelState previousItem, ModelState newItem) {
+    // We use equals when we know the models are immutable and available, otherwise we have to
+    // rely on the stored hashCode
+    if (immutableModels) {
+      // Make sure that the old model hasn't changed, otherwise comparing it with the new one
+      // won't be accurate.
+      if (previousItem.model.isDebugValidationEnabled()) {
+        previousItem.model
+            .validateStateHasNotChangedSinceAdded("Model was changed before it could be diffed.",
+                previousItem.position);
       }
-    }
-  }
 
-  /**
-   * Apply the movement operations to the given item to update its position. Only applies the
-   * operations that have not been applied yet, and stores how many operations have been applied so
-   * we know which ones to apply next time.
-   */
-  private void updateItemPosition(ModelState item, List<UpdateOp> moveOps) {
-    int size = moveOps.size();
-
-    for (int i = item.lastMoveOp; i < size; i++) {
-      UpdateOp moveOp = moveOps.get(i);
-      int fromPosition = moveOp.positionStart;
-      int toPosition = moveOp.itemCount;
-
-      if (item.position > fromPosition && item.position <= toPosition) {
-        item.position--;
-      } else if (item.position < fromPosition && item.position >= toPosition) {
-        item.position++;
-      }
+      // A model reused from a previous build is the same instance, so it can't have changed
+      return previousItem.model != newItem.model && !previousItem.model.equals(newItem.model);
     }
 
-    item.lastMoveOp = size;
+    return previousItem.hashCode != newItem.hashCode;
   }
 
+
   /**
    * Gets the next item in the list that has a pair, meaning it wasn't inserted or removed.
    */
   @Nullable
-  private ModelState getNextItemWithPair(Iterator<ModelState> iterator) {
+  static ModelState getNextItemWithPair(Iterator<ModelState> iterator) {
     ModelState nextItem = null;
     while (nextItem == null && iterator.hasNext()) {
       nextItem = iterator.next();
@@ -0,0 +1,59 @@
+package com.airbnb.epoxy;
+
+/**
+ * The algorithm used to diff models. All strategies produce a correct set of item change
+ * notifications, with removals, insertions and changes batched the same way. They differ in how
+ * moved items are found, which can be a large part of the diff time, so the best strategy depends
+ * on how the models in a list usually change.
+ * <p>
+ * Set a strategy with {@link EpoxyController#setDiffStrategy(DiffStrategy)} or {@link
+ * EpoxyAdapter#enableDiffing(DiffStrategy)}.
+ */
+public abstract class DiffStrategy {
+
+  /**
+   * The default strategy. This is fast when few models have moved, but can take O(n * m) time for
+   * n models and m moves, so it is slow for lists that are often reordered.
+   */
+  public static final DiffStrategy DEFAULT = new DiffStrategy() {
+    @Override
+    MoveDetector createMoveDetector() {
+      return new DefaultMoveDetector();
+    }
+  };
+
+  /**
+   * Finds moves with the longest increasing subsequence of the models' new positions. This takes
+   * O(n log n) time regardless of how many models moved, and finds the fewest moves possible. This
+   * is a good choice for lists that are often reordered, such as when sorting changes.
+   */
+  public static final DiffStrategy INCREASING_SUBSEQUENCE = new DiffStrategy() {
+    @Override
+    MoveDetector createMoveDetector() {
+      return new IncreasingSubsequenceMoveDetector();
+    }
+  };
+
+  /**
+   * Finds moves with Myers' O(ND) difference algorithm on the order of model ids. This takes time
+   * proportional to the number of models times the number of moves, so it is close to linear when
+   * few models move, and finds the fewest moves possible. This is a good choice for lists that
+   * mostly have models added or removed, such as feeds.
+   */
+  public static final DiffStrategy MYERS = new DiffStrategy() {
+    @Override
+    MoveDetector createMoveDetector() {
+      return new MyersMoveDetector();
+    }
+  };
+
+  DiffStrategy() {
+    // Strategies rely on the internals of the differ, so they can only be defined in this package
+  }
+
+  /**
+   * Create a new move detector for this strategy. Detectors may keep state between diffs, so each
+   * one must only be used by one thread.
+   */
+  abstract MoveDetector createMoveDetector();
+}
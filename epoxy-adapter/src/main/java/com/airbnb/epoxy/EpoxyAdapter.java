@@ -40,6 +40,14 @@ public abstract class EpoxyAdapter extends BaseEpoxyAdapter {
    * @see #notifyModelsChanged()
    */
   protected void enableDiffing() {
+    enableDiffing(DiffStrategy.DEFAULT);
+  }
+
+  /**
+   * Like {@link #enableDiffing()}, but models are diffed with the given strategy. Pick the strategy
+   * that suits how the models of this adapter usually change.
+   */
+  protected void enableDiffing(DiffStrategy diffStrategy) {
     if (diffHelper != null) {
       throw new IllegalStateException("Diffing was already enabled");
     }
@@ -53,6 +61,23 @@ public abstract class EpoxyAdapter extends BaseEpoxyAdapter {
     }
 
     diffHelper = new DiffHelper(this, false);
+    diffHelper.setDiffStrategy(diffStrategy);
+  }
+
+  /**
+   * Set the maximum number of item change notifications {@link #notifyModelsChanged()} may make.
+   * If a diff needs more than this, such as when most of a long list is reordered, the changed
+   * models are instead replaced with a few range removals and insertions, which is faster for
+   * RecyclerView to process. By default there is no limit. Diffing must be enabled first.
+   *
+   * @param operationBudget The maximum number of notifications, or 0 for no limit.
+   */
+  protected void setDiffOperationBudget(int operationBudget) {
+    if (diffHelper == null) {
+      throw new IllegalStateException("You must enable diffing before setting a budget");
+    }
+
+    diffHelper.setOperationBudget(operationBudget);
   }
 
   @Override
@@ -80,6 +105,7 @@ public abstract class EpoxyAdapter extends BaseEpoxyAdapter {
     }
 
     diffHelper.notifyModelChanges();
+    removeViewStatesOfRemovedModels();
   }
 
   /**
@@ -2,15 +2,21 @@ package com.airbnb.epoxy;
 
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.GridLayoutManager.SpanSizeLookup;
 import android.support.v7.widget.RecyclerView;
+import android.view.Choreographer;
+import android.view.Choreographer.FrameCallback;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.airbnb.epoxy.ControllerHelperLookup.getHelperForController;
 
@@ -32,6 +38,9 @@ import static com.airbnb.epoxy.ControllerHelperLookup.getHelperForController;
  * Once a model is created and added to the controller in {@link #buildModels()} it should be
  * treated as immutable and never modified again. This is necessary for adapter updates to be
  * accurate.
+ * <p>
+ * Models are built on the main thread by default. Use {@link #EpoxyController(Handler)} to build
+ * them on a background thread instead.
  */
 public abstract class EpoxyController {
 
@@ -39,17 +48,88 @@ public abstract class EpoxyController {
 
   private final EpoxyControllerAdapter adapter = new EpoxyControllerAdapter(this);
   private final ControllerHelper helper = getHelperForController(this);
-  private final Handler handler = new Handler();
+  private final Handler modelBuildingHandler;
+  private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
   private final List<Interceptor> interceptors = new ArrayList<>();
   private ControllerModelList modelsBeingBuilt;
+  /**
+   * The thread currently running {@link #buildModels()}, or null if models aren't being built.
+   * This is tracked so calls from other threads, such as the main thread while models are built in
+   * the background, aren't treated as being inside the build.
+   */
+  private volatile Thread threadBuildingModels;
+  /**
+   * Incremented each time a model build starts. When models are built off the main thread their
+   * result is only set on the adapter if no newer build has started since, otherwise the result is
+   * outdated and dropped.
+   */
+  private volatile int buildGeneration;
   private boolean filterDuplicates;
   /** Used to time operations and log their duration when in debug mode. */
   private Timer timer = NO_OP_TIMER;
   private EpoxyDiffLogger debugObserver;
   private boolean hasBuiltModelsEver;
-  private List<ModelInterceptorCallback> modelInterceptorCallbacks;
+  /**
+   * The models added with debug validation in the current build, tracked by identity so that adding
+   * a model twice is caught without scanning the models being built. Created the first time a
+   * validated model is added, and only used on the model building thread.
+   */
+  @Nullable private Set<EpoxyModel<?>> validatedModels;
+  /**
+   * Models added with debug validation for the first time in the current build. Interceptors are
+   * allowed to change these, so their hash codes are updated after interceptors run.
+   */
+  private final List<EpoxyModel<?>> modelsChangeableByInterceptors = new ArrayList<>();
+  /** If true, only some models are validated and failures are reported instead of thrown. */
+  private volatile boolean sampleModelValidation;
+  private volatile float modelValidationSampleRate;
+  /** Created when sampling is first needed, and only used on the model building thread. */
+  @Nullable private Random modelValidationSampler;
   private int recyclerViewAttachCount = 0;
   private EpoxyModel<?> stagedModel;
+  /** Created the first time a model is cached with {@link #cacheModel(EpoxyModel, Object)}. */
+  @Nullable private ModelCache modelCache;
+  /**
+   * The models from the last model build, which a section build replaces the section's models in.
+   * Only accessed on the model building thread.
+   */
+  private ControllerModelList lastBuiltModels;
+  /**
+   * The sections in {@link #lastBuiltModels}, in order. This is empty if the section positions
+   * aren't known, such as when interceptors may have moved models, in which case sections can only
+   * be rebuilt with a full model build. Only accessed on the model building thread.
+   */
+  private List<ModelSection> builtSections = Collections.emptyList();
+  private List<ModelSection> sectionsBeingBuilt;
+  private ModelSection sectionBeingBuilt;
+  /** Used to find and cancel pending section builds on the model building handler. */
+  private final Object sectionBuildToken = new Object();
+  /** If set, requested model builds are started from a frame callback instead of a post. */
+  @Nullable private Choreographer choreographer;
+  /** How far into a frame a build may start, or 0 to always build in the requested frame. */
+  private long frameBudgetNanos;
+  /** True if the pending frame callback was already pushed back a frame for being over budget. */
+  private boolean buildDeferredByFrameBudget;
+
+  public EpoxyController() {
+    this(new Handler());
+  }
+
+  /**
+   * Create a controller that calls {@link #buildModels()} on the given handler's thread. Use a
+   * handler backed by a background thread to keep expensive model building off the main thread.
+   * Interceptors and duplicate filtering are also run on that thread, and only the finished models
+   * are posted to the main thread to be set on the adapter.
+   * <p>
+   * If models are requested again while a background build is running, the running build is
+   * considered outdated and its models are dropped in favor of the next build.
+   * <p>
+   * Any data used by {@link #buildModels()} must be safe to read from the building thread, and
+   * models must not be accessed on other threads while they are being built.
+   */
+  public EpoxyController(Handler modelBuildingHandler) {
+    this.modelBuildingHandler = modelBuildingHandler;
+  }
 
   /**
    * Call this to request a model update. The controller will schedule a call to {@link
@@ -66,9 +146,16 @@ public abstract class EpoxyController {
     // We want to do it right away the first time so that scroll position can be restored correctly,
     // shared element transitions aren't delayed, and content is shown asap. We post later calls
     // so that they are debounced, and so any updates to data can be completely finished before
-    // the models are built.
-    if (hasBuiltModelsEver) {
-      requestDelayedModelBuild(0);
+    // the models are built. Builds on another thread are always posted.
+    if (hasBuiltModelsEver || modelBuildingHandler.getLooper() != Looper.myLooper()) {
+      if (choreographer != null) {
+        // A build that was already pushed back by the frame budget stays pushed back, so that
+        // repeated requests can't delay it by more than a frame
+        removePendingModelBuildCallbacks();
+        choreographer.postFrameCallback(buildModelsFrameCallback);
+      } else {
+        requestDelayedModelBuild(0);
+      }
     } else {
       cancelPendingModelBuild();
       dispatchModelBuild();
@@ -100,7 +187,7 @@ public abstract class EpoxyController {
     }
 
     cancelPendingModelBuild();
-    handler.postDelayed(buildModelsRunnable, delayMs);
+    modelBuildingHandler.postDelayed(buildModelsRunnable, delayMs);
   }
 
   /**
@@ -108,7 +195,18 @@ public abstract class EpoxyController {
    * #requestModelBuild()}.
    */
   public void cancelPendingModelBuild() {
-    handler.removeCallbacks(buildModelsRunnable);
+    removePendingModelBuildCallbacks();
+    // The canceled build may have been pushed back already, which shouldn't stop the next build
+    // from being pushed back too
+    buildDeferredByFrameBudget = false;
+  }
+
+  private void removePendingModelBuildCallbacks() {
+    modelBuildingHandler.removeCallbacks(buildModelsRunnable);
+    modelBuildingHandler.removeCallbacksAndMessages(sectionBuildToken);
+    if (choreographer != null) {
+      choreographer.removeFrameCallback(buildModelsFrameCallback);
+    }
   }
 
   private final Runnable buildModelsRunnable = new Runnable() {
@@ -118,31 +216,175 @@ public abstract class EpoxyController {
     }
   };
 
+  private final FrameCallback buildModelsFrameCallback = new FrameCallback() {
+    @Override
+    public void doFrame(long frameTimeNanos) {
+      if (frameBudgetNanos > 0
+          && !buildDeferredByFrameBudget
+          && System.nanoTime() - frameTimeNanos > frameBudgetNanos) {
+        // This frame has already used up its budget, so building now would likely drop it. The
+        // build is only pushed back once so that a busy main thread can't postpone it forever.
+        buildDeferredByFrameBudget = true;
+        choreographer.postFrameCallback(this);
+        return;
+      }
+
+      buildDeferredByFrameBudget = false;
+      if (modelBuildingHandler.getLooper() == Looper.myLooper()) {
+        dispatchModelBuild();
+      } else {
+        modelBuildingHandler.post(buildModelsRunnable);
+      }
+    }
+  };
+
   private void dispatchModelBuild() {
+    // Only the model building thread changes the generation, so this increment is safe
+    final int generation = ++buildGeneration;
     helper.resetAutoModels();
 
     modelsBeingBuilt = new ControllerModelList(getExpectedModelCount());
+    threadBuildingModels = Thread.currentThread();
+    sectionsBeingBuilt = new ArrayList<>(builtSections.size());
 
     timer.start();
     buildModels();
     addCurrentlyStagedModelIfExists();
+    if (modelCache != null) {
+      modelCache.onModelsBuilt();
+    }
     timer.stop("Models built");
 
+    int builtModelCount = modelsBeingBuilt.size();
     runInterceptors();
     filterDuplicatesIfNeeded(modelsBeingBuilt);
     modelsBeingBuilt.freeze();
 
+    final ControllerModelList builtModels = modelsBeingBuilt;
+    modelsBeingBuilt = null;
+    threadBuildingModels = null;
+    clearValidatedModels();
+
+    // Interceptors and duplicate filtering may move models out of their sections
+    boolean sectionPositionsKnown = interceptors.isEmpty() && builtModelCount == builtModels.size();
+    builtSections =
+        sectionPositionsKnown ? sectionsBeingBuilt : Collections.<ModelSection>emptyList();
+    sectionsBeingBuilt = null;
+    lastBuiltModels = builtModels;
+
+    setBuiltModels(generation, builtModels, null, 0, 0);
+  }
+
+  /**
+   * Rebuild only the models of the given section, and replace the section's models from the last
+   * model build with them. If the section's position isn't known then all models are rebuilt
+   * instead.
+   */
+  void dispatchSectionBuild(ModelSection section) {
+    if (!interceptors.isEmpty() || !builtSections.contains(section)) {
+      // Interceptors need to see all models, so they can't be used with partial builds
+      dispatchModelBuild();
+      return;
+    }
+
+    final int generation = ++buildGeneration;
+    helper.resetAutoModels();
+
+    modelsBeingBuilt = new ControllerModelList(Math.max(section.modelCount, 1));
+    threadBuildingModels = Thread.currentThread();
+    sectionBeingBuilt = section;
+
     timer.start();
-    adapter.setModels(modelsBeingBuilt);
-    timer.stop("Models diffed");
+    section.buildModels(this);
+    addCurrentlyStagedModelIfExists();
+    timer.stop("Section models built");
+
+    ControllerModelList sectionModels = modelsBeingBuilt;
+    sectionBeingBuilt = null;
+
+    ControllerModelList previousModels = lastBuiltModels;
+    int rangeStart = section.modelStart;
+    int previousRangeCount = section.modelCount;
+    int builtModelCount = previousModels.size() - previousRangeCount + sectionModels.size();
+    modelsBeingBuilt = new ControllerModelList(builtModelCount);
+    modelsBeingBuilt.addAll(previousModels.subList(0, rangeStart));
+    modelsBeingBuilt.addAll(sectionModels);
+    modelsBeingBuilt.addAll(
+        previousModels.subList(rangeStart + previousRangeCount, previousModels.size()));
 
+    filterDuplicatesIfNeeded(modelsBeingBuilt);
+    modelsBeingBuilt.freeze();
+
+    final ControllerModelList builtModels = modelsBeingBuilt;
     modelsBeingBuilt = null;
-    hasBuiltModelsEver = true;
+    threadBuildingModels = null;
+    clearValidatedModels();
+    lastBuiltModels = builtModels;
+
+    if (builtModelCount != builtModels.size()) {
+      // Duplicates were removed, so the other sections may have moved and the full list is diffed
+      builtSections = Collections.emptyList();
+      setBuiltModels(generation, builtModels, null, 0, 0);
+      return;
+    }
+
+    int positionChange = sectionModels.size() - previousRangeCount;
+    section.modelCount = sectionModels.size();
+    for (int i = builtSections.indexOf(section) + 1; i < builtSections.size(); i++) {
+      builtSections.get(i).modelStart += positionChange;
+    }
+
+    setBuiltModels(generation, builtModels, previousModels, rangeStart, previousRangeCount);
+  }
+
+  /**
+   * Set built models on the adapter, on the main thread. If previous models are given then only the
+   * given range of models differs from them, and only that range is diffed if the previous models
+   * are still the adapter's models.
+   */
+  private void setBuiltModels(final int generation, final ControllerModelList builtModels,
+      @Nullable final ControllerModelList previousModels, final int rangeStart,
+      final int previousRangeCount) {
+    if (Looper.myLooper() == Looper.getMainLooper()) {
+      timer.start();
+      setModelsOnAdapter(builtModels, previousModels, rangeStart, previousRangeCount);
+      timer.stop("Models diffed");
+      hasBuiltModelsEver = true;
+      return;
+    }
+
+    // The timer isn't used here since it may be in use by the next build on the building thread
+    mainThreadHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        if (generation != buildGeneration) {
+          // A newer build has started and will replace these models
+          return;
+        }
+
+        setModelsOnAdapter(builtModels, previousModels, rangeStart, previousRangeCount);
+        hasBuiltModelsEver = true;
+      }
+    });
+  }
+
+  /**
+   * Set the latest built models on the adapter. Called on the main thread, and only for the models
+   * of the latest build.
+   */
+  void setModelsOnAdapter(ControllerModelList builtModels,
+      @Nullable ControllerModelList previousModels, int rangeStart, int previousRangeCount) {
+    if (previousModels == null) {
+      adapter.setModels(builtModels);
+    } else {
+      adapter.setModelRange(previousModels, builtModels, rangeStart, previousRangeCount);
+    }
   }
 
   /** An estimate for how many models will be built in the next {@link #buildModels()} phase. */
   private int getExpectedModelCount() {
-    int currentModelCount = adapter.getItemCount();
+    // The adapter's item count may be larger than its models if it shows a window of the data
+    int currentModelCount = adapter.getCurrentModels().size();
     return currentModelCount != 0 ? currentModelCount : 25;
   }
 
@@ -161,6 +403,26 @@ public abstract class EpoxyController {
    */
   protected abstract void buildModels();
 
+  /**
+   * The list that models are being added to in the current build. This is the list that is later
+   * passed to {@link #setModelsOnAdapter}. Must be called from {@link #buildModels()}.
+   */
+  List<EpoxyModel<?>> getModelsBeingBuilt() {
+    return modelsBeingBuilt;
+  }
+
+  /**
+   * The models from the last model build. This must be called on the model building thread, since
+   * that is where they are set. Unlike the adapter's models, which are only updated on the main
+   * thread, these are always the latest models even while they are being posted to the adapter.
+   */
+  List<EpoxyModel<?>> getLastBuiltModels() {
+    if (lastBuiltModels == null) {
+      return Collections.emptyList();
+    }
+    return lastBuiltModels;
+  }
+
   int getFirstIndexOfModelInBuildingList(EpoxyModel<?> model) {
     int size = modelsBeingBuilt.size();
     for (int i = 0; i < size; i++) {
@@ -172,45 +434,75 @@ public abstract class EpoxyController {
     return -1;
   }
 
-  boolean isModelAddedMultipleTimes(EpoxyModel<?> model) {
-    int modelCount = 0;
-    int size = modelsBeingBuilt.size();
-    for (int i = 0; i < size; i++) {
-      if (modelsBeingBuilt.get(i) == model) {
-        modelCount++;
-      }
+  /**
+   * Whether a model being added with debug validation should be validated. With sampling, models
+   * that are already validated stay validated and others are picked at the sample rate.
+   */
+  boolean shouldValidateModel(EpoxyModel<?> model) {
+    if (!sampleModelValidation || model.isDebugValidationEnabled()) {
+      return true;
+    }
+
+    if (modelValidationSampler == null) {
+      modelValidationSampler = new Random();
     }
 
-    return modelCount > 1;
+    return modelValidationSampler.nextFloat() < modelValidationSampleRate;
   }
 
-  void addAfterInterceptorCallback(ModelInterceptorCallback callback) {
-    if (!isBuildingModels()) {
-      throw new IllegalEpoxyUsage("Can only call when building models");
+  /**
+   * Throw the failure of a model validation, or report it to {@link
+   * #onExceptionSwallowed(RuntimeException)} if validation is sampled.
+   */
+  void onModelValidationFailed(RuntimeException exception) {
+    if (!sampleModelValidation) {
+      throw exception;
     }
 
-    if (modelInterceptorCallbacks == null) {
-      modelInterceptorCallbacks = new ArrayList<>();
+    onExceptionSwallowed(exception);
+  }
+
+  /**
+   * Record that the model was added with debug validation in the current build.
+   *
+   * @return False if the model was already added in this build.
+   */
+  boolean addValidatedModel(EpoxyModel<?> model) {
+    if (validatedModels == null) {
+      validatedModels = Collections.newSetFromMap(
+          new IdentityHashMap<EpoxyModel<?>, Boolean>(modelsBeingBuilt.size() + 1));
     }
 
-    modelInterceptorCallbacks.add(callback);
+    return validatedModels.add(model);
   }
 
   /**
-   * Callbacks to each model for when interceptors are started and stopped, so the models know when
-   * to allow changes.
+   * Allow the model to be changed by interceptors in the current build. Its hash code is updated
+   * once interceptors have run.
    */
-  interface ModelInterceptorCallback {
-    void onInterceptorsStarted(EpoxyController controller);
-    void onInterceptorsFinished(EpoxyController controller);
+  void addModelChangeableByInterceptors(EpoxyModel<?> model) {
+    if (!isBuildingModels()) {
+      throw new IllegalEpoxyUsage("Can only call when building models");
+    }
+
+    modelsChangeableByInterceptors.add(model);
+  }
+
+  private void clearValidatedModels() {
+    if (validatedModels != null) {
+      validatedModels.clear();
+    }
+
+    // Cleared so that future model builds don't notify past models
+    modelsChangeableByInterceptors.clear();
   }
 
   private void runInterceptors() {
     if (!interceptors.isEmpty()) {
-      if (modelInterceptorCallbacks != null) {
-        for (ModelInterceptorCallback callback : modelInterceptorCallbacks) {
-          callback.onInterceptorsStarted(this);
-        }
+      // Indexed to avoid allocating an iterator
+      int changeableModelCount = modelsChangeableByInterceptors.size();
+      for (int i = 0; i < changeableModelCount; i++) {
+        modelsChangeableByInterceptors.get(i).onInterceptorsStarted();
       }
 
       timer.start();
@@ -221,13 +513,8 @@ public abstract class EpoxyController {
 
       timer.stop("Interceptors executed");
 
-      if (modelInterceptorCallbacks != null) {
-        for (ModelInterceptorCallback callback : modelInterceptorCallbacks) {
-          callback.onInterceptorsFinished(this);
-        }
-
-        // Interceptors are cleared so that future model builds don't notify past models
-        modelInterceptorCallbacks = null;
+      for (int i = 0; i < changeableModelCount; i++) {
+        modelsChangeableByInterceptors.get(i).onInterceptorsFinished();
       }
     }
   }
@@ -310,6 +597,119 @@ public abstract class EpoxyController {
     }
   }
 
+  /**
+   * Get the model that was cached for this id with {@link #cacheModel(EpoxyModel, Object)} during
+   * the previous model build, if it was cached with a data key equal to the given one. Otherwise
+   * null is returned, and a new model should be created and cached instead. Can only be called from
+   * inside {@link EpoxyController#buildModels()}.
+   * <p>
+   * Reusing a model skips creating and setting up a new one, and since the same instance is set on
+   * the adapter again diffing knows it is unchanged without calling equals on it. A reused model
+   * still has to be added to the controller.
+   * <p>
+   * The data key should be equal only when the model would be built the same way, for example the
+   * data object itself if it implements equals, or a version number of that data. Models are
+   * immutable once added, so a cached model must never be changed afterwards, including from an
+   * {@link Interceptor}.
+   */
+  @Nullable
+  protected EpoxyModel<?> getCachedModel(long id, @Nullable Object dataKey) {
+    if (!isBuildingModels()) {
+      throw new IllegalEpoxyUsage("Can only get cached models inside the `buildModels` method");
+    }
+
+    return modelCache == null ? null : modelCache.get(id, dataKey);
+  }
+
+  /**
+   * Cache a model so that the next model build can reuse it with {@link #getCachedModel(long,
+   * Object)} if it is requested with an equal data key. The model must have its id set. Can only
+   * be called from inside {@link EpoxyController#buildModels()}.
+   * <p>
+   * Only models that are cached or reused during a build are kept for the next one.
+   */
+  protected void cacheModel(EpoxyModel<?> model, @Nullable Object dataKey) {
+    if (!isBuildingModels()) {
+      throw new IllegalEpoxyUsage("Can only cache models inside the `buildModels` method");
+    }
+
+    if (model.hasDefaultId()) {
+      throw new IllegalEpoxyUsage("You must set an id on a model before caching it.");
+    }
+
+    if (modelCache == null) {
+      modelCache = new ModelCache();
+    }
+
+    modelCache.put(model, dataKey);
+  }
+
+  /**
+   * Add a section of models to this controller. The section's {@link
+   * ModelSection#buildModels(EpoxyController)} is called right away to add its models in place. Can
+   * only be called from inside {@link EpoxyController#buildModels()}.
+   * <p>
+   * Once added, the section's models can be rebuilt on their own with {@link
+   * #requestSectionBuild(ModelSection)}.
+   */
+  protected void addSection(ModelSection section) {
+    if (!isBuildingModels()) {
+      throw new IllegalEpoxyUsage("Sections can only be added inside the `buildModels` method");
+    }
+
+    if (sectionBeingBuilt != null) {
+      throw new IllegalEpoxyUsage("Sections cannot be added inside other sections");
+    }
+
+    if (section.controller != null && section.controller != this) {
+      throw new IllegalEpoxyUsage("A section can only be added to one controller");
+    }
+
+    if (sectionsBeingBuilt.contains(section)) {
+      throw new IllegalEpoxyUsage("This section was already added to the controller");
+    }
+
+    // A model staged before the section belongs before it
+    addCurrentlyStagedModelIfExists();
+    int modelStart = modelsBeingBuilt.size();
+
+    section.controller = this;
+    sectionBeingBuilt = section;
+    section.buildModels(this);
+    addCurrentlyStagedModelIfExists();
+    sectionBeingBuilt = null;
+
+    section.modelStart = modelStart;
+    section.modelCount = modelsBeingBuilt.size() - modelStart;
+    sectionsBeingBuilt.add(section);
+  }
+
+  /**
+   * Request that only the models of the given section are rebuilt, for when only the data that
+   * section shows has changed. The section's new models replace its previous ones, and only they
+   * are diffed, so the cost of the update doesn't depend on how many models the rest of the
+   * controller has. Like {@link #requestModelBuild()} the build is posted, and repeated requests
+   * for the same section are debounced.
+   * <p>
+   * If the section wasn't added in the last model build, or if interceptors are used, then all
+   * models are rebuilt instead.
+   */
+  public void requestSectionBuild(ModelSection section) {
+    if (isBuildingModels()) {
+      throw new IllegalEpoxyUsage("Cannot call `requestSectionBuild` from inside `buildModels`");
+    }
+
+    if (section.controller != this) {
+      // The section hasn't been added yet, so all models need to be built to add it
+      requestModelBuild();
+      return;
+    }
+
+    modelBuildingHandler.removeCallbacks(section.buildRunnable);
+    modelBuildingHandler.postAtTime(section.buildRunnable, sectionBuildToken,
+        SystemClock.uptimeMillis());
+  }
+
   /**
    * Method to actually add the model to the list being built. Should be called after all
    * validations are done.
@@ -372,53 +772,48 @@ public abstract class EpoxyController {
     stagedModel = null;
   }
 
+  /** True if models are currently being built on the calling thread. */
   boolean isBuildingModels() {
-    return modelsBeingBuilt != null;
+    return threadBuildingModels == Thread.currentThread();
   }
 
-  private void filterDuplicatesIfNeeded(List<EpoxyModel<?>> models) {
+  private void filterDuplicatesIfNeeded(ControllerModelList models) {
     if (!filterDuplicates) {
       return;
     }
 
     timer.start();
-    Set<Long> modelIds = new HashSet<>(models.size());
-
-    ListIterator<EpoxyModel<?>> modelIterator = models.listIterator();
-    while (modelIterator.hasNext()) {
-      EpoxyModel<?> model = modelIterator.next();
-      if (!modelIds.add(model.id())) {
-        int indexOfDuplicate = modelIterator.previousIndex();
-        modelIterator.remove();
-
-        int indexOfOriginal = findPositionOfDuplicate(models, model);
-        EpoxyModel<?> originalModel = models.get(indexOfOriginal);
-        if (indexOfDuplicate <= indexOfOriginal) {
-          // Adjust for the original positions of the models before the duplicate was removed
-          indexOfOriginal++;
-        }
+    int size = models.size();
+    ModelIdIndex idIndex = new ModelIdIndex(size);
 
+    // Kept models are moved down over the removed duplicates, so the list is compacted in one pass
+    // and the index holds the final position of every kept model.
+    int keptCount = 0;
+    for (int i = 0; i < size; i++) {
+      EpoxyModel<?> model = models.get(i);
+      int indexOfOriginal = idIndex.putIfAbsent(model.id(), keptCount);
+      if (indexOfOriginal != ModelIdIndex.NO_POSITION) {
         onExceptionSwallowed(
             new IllegalEpoxyUsage("Two models have the same ID. ID's must be unique!"
-                + "\nOriginal has position " + indexOfOriginal + ":\n" + originalModel
-                + "\nDuplicate has position " + indexOfDuplicate + ":\n" + model)
+                + "\nOriginal has position " + indexOfOriginal + ":\n"
+                + models.get(indexOfOriginal)
+                + "\nDuplicate has position " + keptCount + ":\n" + model)
         );
+        continue;
       }
-    }
-
-    timer.stop("Duplicates filtered");
-  }
 
-  private int findPositionOfDuplicate(List<EpoxyModel<?>> models, EpoxyModel<?> duplicateModel) {
-    int size = models.size();
-    for (int i = 0; i < size; i++) {
-      EpoxyModel<?> model = models.get(i);
-      if (model.id() == duplicateModel.id()) {
-        return i;
+      if (keptCount != i) {
+        models.set(keptCount, model);
       }
+      keptCount++;
+    }
+
+    if (keptCount < size) {
+      models.subList(keptCount, size).clear();
     }
 
-    throw new IllegalArgumentException("No duplicates in list");
+    models.setIdIndex(idIndex);
+    timer.stop("Duplicates filtered");
   }
 
   /**
@@ -436,6 +831,84 @@ public abstract class EpoxyController {
     this.filterDuplicates = filterDuplicates;
   }
 
+  /**
+   * Set the algorithm used to diff models. Pick the strategy that suits how the models of this
+   * controller usually change. {@link DiffStrategy#DEFAULT} is used if this isn't set.
+   */
+  public void setDiffStrategy(DiffStrategy diffStrategy) {
+    adapter.setDiffStrategy(diffStrategy);
+  }
+
+  /**
+   * Set the maximum number of item change notifications a diff may make. If a diff needs more than
+   * this, such as when most of a long list is reordered, the changed models are instead replaced
+   * with a few range removals and insertions, which is faster for RecyclerView to process. Models
+   * that are at the same position in both lists are still notified as changed with payloads where
+   * possible. By default there is no limit.
+   *
+   * @param operationBudget The maximum number of notifications, or 0 for no limit.
+   */
+  public void setDiffOperationBudget(int operationBudget) {
+    adapter.setDiffOperationBudget(operationBudget);
+  }
+
+  /**
+   * By default models are diffed on the main thread as soon as they are built. Set a handler here
+   * to have the diff calculated on that handler's thread instead, which is useful for large model
+   * lists that are expensive to diff. Only the resulting item change notifications are dispatched
+   * on the main thread.
+   * <p>
+   * While a diff is in progress the adapter keeps showing the previous models. If models are
+   * rebuilt before a diff finishes then that diff is outdated and its result is discarded.
+   *
+   * @param diffingHandler A handler backed by a background thread, or null to diff on the main
+   *                       thread again.
+   */
+  public void setDiffingHandler(@Nullable Handler diffingHandler) {
+    adapter.setDiffingHandler(diffingHandler);
+  }
+
+  /**
+   * If enabled, model builds requested with {@link #requestModelBuild()} are started at the
+   * beginning of the next frame via a {@link Choreographer} callback instead of being posted to the
+   * model building handler. All requests made before that frame are coalesced into a single build,
+   * and since frame callbacks run before layout the new models are laid out in the same frame they
+   * are built in. If models are built on a background thread the build is started at the frame and
+   * its result is set on the adapter once it finishes.
+   * <p>
+   * {@link #requestDelayedModelBuild(int)} is not affected by this and still posts the build with
+   * the given delay.
+   * <p>
+   * This must be called on the main thread.
+   */
+  public void setFrameAlignedModelBuilding(boolean frameAligned) {
+    if (Looper.myLooper() != Looper.getMainLooper()) {
+      throw new IllegalEpoxyUsage("Frame aligned model building must be set on the main thread");
+    }
+
+    cancelPendingModelBuild();
+    choreographer = frameAligned ? Choreographer.getInstance() : null;
+  }
+
+  /**
+   * Set how far into a frame, in milliseconds, a frame aligned model build may start. If the frame
+   * has already taken longer than this when the build would start, for example because of a long
+   * layout or input handling, the build is pushed back to the next frame so it doesn't make the
+   * current frame drop. A build is only pushed back once, so it is never delayed by more than a
+   * frame.
+   * <p>
+   * This only applies when {@link #setFrameAlignedModelBuilding(boolean)} is enabled.
+   *
+   * @param frameBudgetMs The budget in milliseconds, or 0 to always build in the requested frame.
+   */
+  public void setModelBuildFrameBudget(int frameBudgetMs) {
+    if (frameBudgetMs < 0) {
+      throw new IllegalArgumentException("Frame budget cannot be negative: " + frameBudgetMs);
+    }
+
+    frameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(frameBudgetMs);
+  }
+
   /**
    * If enabled, DEBUG logcat messages will be printed to show when models are rebuilt, the time
    * taken to build them, the time taken to diff them, and the item change outcomes from the
@@ -464,6 +937,31 @@ public abstract class EpoxyController {
     }
   }
 
+  /**
+   * Validate only a fraction of the models added to this controller, and report validation failures
+   * to {@link #onExceptionSwallowed(RuntimeException)} instead of throwing them. This has no effect
+   * unless "validateEpoxyModelUsage" is enabled for the models.
+   * <p>
+   * Each model is picked for validation when it is added, and once picked it is validated until it
+   * is no longer used. Models that aren't picked skip all validation, including the hashCode checks
+   * when they are diffed and bound, so the cost of validation is about the sample rate times the
+   * cost of full validation. This makes it possible to keep catching model mutation bugs in
+   * production builds, where throwing or validating every model would be too expensive.
+   * <p>
+   * Models are still used after a failure is reported, and later validations of a model check for
+   * changes made since its last reported failure.
+   *
+   * @param sampleRate The fraction of models to validate, from 0 to 1.
+   */
+  public void setModelValidationSampleRate(float sampleRate) {
+    if (!(sampleRate >= 0 && sampleRate <= 1)) {
+      throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + sampleRate);
+    }
+
+    modelValidationSampleRate = sampleRate;
+    sampleModelValidation = true;
+  }
+
   /**
    * Get the underlying adapter built by this controller. Use this to get the adapter to set on a
    * RecyclerView, or to get information about models currently in use.
@@ -536,6 +1034,11 @@ public abstract class EpoxyController {
     onDetachedFromRecyclerView(recyclerView);
   }
 
+  void onModelBoundInternal(EpoxyViewHolder holder, EpoxyModel<?> boundModel, int position,
+      @Nullable EpoxyModel<?> previouslyBoundModel) {
+    onModelBound(holder, boundModel, position, previouslyBoundModel);
+  }
+
   /** Called when the controller's adapter is attach to a recyclerview. */
   protected void onAttachedToRecyclerView(RecyclerView recyclerView) {
 
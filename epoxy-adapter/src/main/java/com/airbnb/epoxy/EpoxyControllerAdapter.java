@@ -1,8 +1,12 @@
 package com.airbnb.epoxy;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
 
+import com.airbnb.epoxy.DiffHelper.DiffResult;
+
 import java.util.Collections;
 import java.util.List;
 
@@ -10,9 +14,37 @@ public final class EpoxyControllerAdapter extends BaseEpoxyAdapter {
   private final DiffHelper diffHelper = new DiffHelper(this, true);
   private final NotifyBlocker notifyBlocker = new NotifyBlocker();
   private final EpoxyController epoxyController;
+  private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
   private List<EpoxyModel<?>> currentModels = Collections.emptyList();
   private List<EpoxyModel<?>> copyOfCurrentModels;
   private int itemCount;
+  /**
+   * The ids and view types of the current models. RecyclerView asks for these constantly, so they
+   * are read from arrays that are filled once when the models are set, instead of from the models.
+   */
+  private long[] modelIds = ModelSnapshot.EMPTY.ids;
+  private int[] modelViewTypes = ModelSnapshot.EMPTY.viewTypes;
+  /** If set, diffs are calculated on this handler's thread instead of the main thread. */
+  @Nullable private Handler diffingHandler;
+  /**
+   * Incremented each time new models are set. A diff result is only applied if no newer models
+   * were set while it was being calculated, otherwise it is stale and is discarded.
+   */
+  private int modelsGeneration;
+  /**
+   * Set if the adapter shows a window of a larger data set, in which case the current models are
+   * only those of the items in the window. See {@link #setWindowedModels}.
+   */
+  @Nullable private WindowedItemSource windowedItemSource;
+  /** The adapter position of the first current model. This is only non zero for windowed data. */
+  private int windowStart;
+  /**
+   * The last placeholder built for an item outside of the window. RecyclerView asks for the view
+   * type, and then to create and bind a view, of a position one after another, so this saves
+   * building the placeholder for each of them.
+   */
+  @Nullable private EpoxyModel<?> lastPlaceholderModel;
+  private int lastPlaceholderPosition = RecyclerView.NO_POSITION;
 
   EpoxyControllerAdapter(EpoxyController epoxyController) {
     this.epoxyController = epoxyController;
@@ -37,15 +69,271 @@ public final class EpoxyControllerAdapter extends BaseEpoxyAdapter {
     return itemCount;
   }
 
-  void setModels(List<EpoxyModel<?>> models) {
-    itemCount = models.size();
+  void setDiffingHandler(@Nullable Handler diffingHandler) {
+    this.diffingHandler = diffingHandler;
+  }
+
+  void setDiffStrategy(DiffStrategy diffStrategy) {
+    diffHelper.setDiffStrategy(diffStrategy);
+  }
+
+  void setDiffOperationBudget(int operationBudget) {
+    diffHelper.setOperationBudget(operationBudget);
+  }
+
+  void setModels(final List<EpoxyModel<?>> models) {
+    final int generation = ++modelsGeneration;
+
+    // Going to or from an empty list is a single insert or remove, so there is nothing to gain by
+    // diffing in the background. Doing it right away also shows the first models as soon as
+    // possible.
+    if (diffingHandler == null || currentModels.isEmpty() || models.isEmpty()) {
+      swapModels(models, ModelSnapshot.of(models));
+      notifyBlocker.allowChanges();
+      diffHelper.notifyModelChanges();
+      notifyBlocker.blockChanges();
+      return;
+    }
+
+    // Models are frozen once they are built, so both lists are safe to read on another thread.
+    final List<EpoxyModel<?>> previousModels = currentModels;
+    diffingHandler.post(new Runnable() {
+      @Override
+      public void run() {
+        final DiffResult result;
+        final ModelSnapshot snapshot;
+        try {
+          result = diffHelper.calculateDiff(previousModels, models);
+          snapshot = ModelSnapshot.of(models);
+        } catch (final RuntimeException e) {
+          // Surface errors, such as duplicate ids, on the main thread like a normal diff would
+          mainThreadHandler.post(new Runnable() {
+            @Override
+            public void run() {
+              throw e;
+            }
+          });
+          return;
+        }
+
+        mainThreadHandler.post(new Runnable() {
+          @Override
+          public void run() {
+            if (generation != modelsGeneration) {
+              // Newer models were set while this was diffing, so these changes are outdated.
+              return;
+            }
+
+            swapModels(models, snapshot);
+            notifyBlocker.allowChanges();
+            diffHelper.applyDiff(result);
+            notifyBlocker.blockChanges();
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Set new models that only differ from the given previous models in the given range, so that
+   * only that range needs to be diffed. If the previous models aren't the current models anymore,
+   * such as while a diff of other models runs in the background, all models are diffed instead.
+   */
+  void setModelRange(List<EpoxyModel<?>> previousModels, List<EpoxyModel<?>> models,
+      int rangeStart, int previousRangeCount) {
+    if (previousModels != currentModels) {
+      setModels(models);
+      return;
+    }
+
+    // Any diff still running in the background is outdated by these models
+    modelsGeneration++;
+    swapModels(models, snapshotWithRangeChanged(models, rangeStart, previousRangeCount));
+    notifyBlocker.allowChanges();
+    diffHelper.notifyModelRangeChanged(rangeStart, previousRangeCount);
+    notifyBlocker.blockChanges();
+  }
+
+  /**
+   * Show the items outside of the window of a windowed data set with ids and placeholder models
+   * from the given source. Once this is set models must be set with {@link #setWindowedModels}.
+   */
+  void setWindowedItemSource(WindowedItemSource windowedItemSource) {
+    this.windowedItemSource = windowedItemSource;
+    // Positions of a windowed adapter don't match its models, and they aren't diffed
+    diffHelper.stopObservingAdapter();
+  }
+
+  /**
+   * Set the models for a window of the data set, which start at the given adapter position. The
+   * item count and the ids of items outside of the window come from the data set, so the adapter
+   * only keeps models for the window, and setting them takes time in proportion to the window
+   * rather than the data set.
+   * <p>
+   * If the data changed all items are notified as changed, since items outside of the window
+   * can't be diffed. Otherwise only the window moved, and only the items entering and leaving it,
+   * and items in both windows whose models changed, are notified.
+   */
+  void setWindowedModels(List<EpoxyModel<?>> models, int windowStart, int itemCount,
+      boolean dataChanged) {
+    // Any diff still running in the background is outdated by these models
+    modelsGeneration++;
+    List<EpoxyModel<?>> previousModels = currentModels;
+    int previousWindowStart = this.windowStart;
+    int previousItemCount = this.itemCount;
+
+    ModelSnapshot snapshot = ModelSnapshot.of(models);
+    this.itemCount = itemCount;
+    this.windowStart = windowStart;
     copyOfCurrentModels = null;
-    this.currentModels = models;
+    currentModels = models;
+    modelIds = snapshot.ids;
+    modelViewTypes = snapshot.viewTypes;
+    lastPlaceholderModel = null;
+    lastPlaceholderPosition = RecyclerView.NO_POSITION;
+    // The view states of items outside of the window are kept, since those items are still in the
+    // adapter. They are bounded by the view state limits instead.
+
     notifyBlocker.allowChanges();
-    diffHelper.notifyModelChanges();
+    if (previousItemCount == 0) {
+      notifyItemRangeInserted(0, itemCount);
+    } else if (itemCount == 0) {
+      notifyItemRangeRemoved(0, previousItemCount);
+    } else if (dataChanged || itemCount != previousItemCount) {
+      notifyDataSetChanged();
+    } else {
+      notifyWindowMoved(previousModels, previousWindowStart);
+    }
     notifyBlocker.blockChanges();
   }
 
+  /**
+   * Notify the changes of the current window from the previous one, for the same data. Items only
+   * in one of the windows change between their model and a placeholder, and items in both are
+   * only changed if their model changed.
+   */
+  private void notifyWindowMoved(List<EpoxyModel<?>> previousModels, int previousWindowStart) {
+    int previousWindowEnd = previousWindowStart + previousModels.size();
+    for (int position = previousWindowStart; position < previousWindowEnd; position++) {
+      EpoxyModel<?> previousModel = previousModels.get(position - previousWindowStart);
+      if (!isInWindow(position)) {
+        notifyItemChanged(position);
+        continue;
+      }
+
+      EpoxyModel<?> model = currentModels.get(position - windowStart);
+      if (model.hashCode() != previousModel.hashCode()) {
+        notifyItemChanged(position,
+            new DiffPayload(Collections.<EpoxyModel<?>>singletonList(previousModel)));
+      }
+    }
+
+    int windowEnd = windowStart + currentModels.size();
+    for (int position = windowStart; position < windowEnd; position++) {
+      if (position < previousWindowStart || position >= previousWindowEnd) {
+        notifyItemChanged(position);
+      }
+    }
+  }
+
+  private boolean isInWindow(int position) {
+    return position >= windowStart && position - windowStart < modelIds.length;
+  }
+
+  private EpoxyModel<?> getPlaceholderModel(int position) {
+    if (position != lastPlaceholderPosition) {
+      // noinspection ConstantConditions
+      lastPlaceholderModel = windowedItemSource.buildPlaceholderModel(position);
+      lastPlaceholderPosition = position;
+    }
+
+    return lastPlaceholderModel;
+  }
+
+  private void swapModels(List<EpoxyModel<?>> models, ModelSnapshot snapshot) {
+    itemCount = models.size();
+    copyOfCurrentModels = null;
+    this.currentModels = models;
+    modelIds = snapshot.ids;
+    modelViewTypes = snapshot.viewTypes;
+    removeViewStatesOfRemovedModels();
+  }
+
+  /**
+   * Snapshot models that only differ from the current models in the given range. Only the models in
+   * the range are read, and the rest is copied from the current snapshot.
+   */
+  private ModelSnapshot snapshotWithRangeChanged(List<EpoxyModel<?>> models, int rangeStart,
+      int previousRangeCount) {
+    int size = models.size();
+    int countAfterRange = currentModels.size() - rangeStart - previousRangeCount;
+    int rangeEnd = size - countAfterRange;
+
+    ModelSnapshot snapshot = new ModelSnapshot(size);
+    System.arraycopy(modelIds, 0, snapshot.ids, 0, rangeStart);
+    System.arraycopy(modelViewTypes, 0, snapshot.viewTypes, 0, rangeStart);
+    snapshot.fill(models, rangeStart, rangeEnd);
+    System.arraycopy(modelIds, rangeStart + previousRangeCount, snapshot.ids, rangeEnd,
+        countAfterRange);
+    System.arraycopy(modelViewTypes, rangeStart + previousRangeCount, snapshot.viewTypes,
+        rangeEnd, countAfterRange);
+    return snapshot;
+  }
+
+  @Override
+  public long getItemId(int position) {
+    if (windowedItemSource != null && !isInWindow(position)) {
+      return windowedItemSource.getItemId(position);
+    }
+    return modelIds[position - windowStart];
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return itemCount == 0;
+  }
+
+  @Override
+  EpoxyModel<?> getModelForPosition(int position) {
+    if (windowedItemSource != null && !isInWindow(position)) {
+      return getPlaceholderModel(position);
+    }
+    return currentModels.get(position - windowStart);
+  }
+
+  @Override
+  ModelIdIndex getModelIdIndex() {
+    if (currentModels instanceof ControllerModelList) {
+      return ((ControllerModelList) currentModels).getIdIndex();
+    }
+    return super.getModelIdIndex();
+  }
+
+  @Override
+  @Nullable
+  EpoxyModel<?> findModelWithViewType(int viewType) {
+    int[] viewTypes = modelViewTypes;
+    for (int i = 0; i < viewTypes.length; i++) {
+      if (viewTypes[i] == viewType) {
+        return currentModels.get(i);
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public int getItemViewType(int position) {
+    // The model is only needed if a view has to be created for it, so it is looked up from the
+    // position then
+    viewTypeManager.setLastPositionForViewTypeLookup(position);
+    if (windowedItemSource != null && !isInWindow(position)) {
+      return ViewTypeManager.getViewTypeInternal(getPlaceholderModel(position));
+    }
+
+    return modelViewTypes[position - windowStart];
+  }
+
   @Override
   boolean diffPayloadsEnabled() {
     return true;
@@ -76,7 +364,7 @@ public final class EpoxyControllerAdapter extends BaseEpoxyAdapter {
   @Override
   protected void onModelBound(EpoxyViewHolder holder, EpoxyModel<?> model, int position,
       @Nullable EpoxyModel<?> previouslyBoundModel) {
-    epoxyController.onModelBound(holder, model, position, previouslyBoundModel);
+    epoxyController.onModelBoundInternal(holder, model, position, previouslyBoundModel);
   }
 
   @Override
@@ -84,7 +372,10 @@ public final class EpoxyControllerAdapter extends BaseEpoxyAdapter {
     epoxyController.onModelUnbound(holder, model);
   }
 
-  /** Get an unmodifiable copy of the current models set on the adapter. */
+  /**
+   * Get an unmodifiable copy of the current models set on the adapter. For a windowed data set
+   * these are only the models of the items in the window.
+   */
   public List<EpoxyModel<?>> getCopyOfModels() {
     if (copyOfCurrentModels == null) {
       copyOfCurrentModels = new UnmodifiableList<>(currentModels);
@@ -94,7 +385,7 @@ public final class EpoxyControllerAdapter extends BaseEpoxyAdapter {
   }
 
   public EpoxyModel<?> getModelAtPosition(int position) {
-    return currentModels.get(position);
+    return getModelForPosition(position);
   }
 
   /**
@@ -103,6 +394,11 @@ public final class EpoxyControllerAdapter extends BaseEpoxyAdapter {
    */
   @Nullable
   public EpoxyModel<?> getModelById(long id) {
+    if (currentModels instanceof ControllerModelList) {
+      int position = ((ControllerModelList) currentModels).getIdIndex().get(id);
+      return position == ModelIdIndex.NO_POSITION ? null : currentModels.get(position);
+    }
+
     for (EpoxyModel<?> model : currentModels) {
       if (model.id() == id) {
         return model;
@@ -113,14 +409,59 @@ public final class EpoxyControllerAdapter extends BaseEpoxyAdapter {
   }
 
   protected int getModelPosition(EpoxyModel<?> targetModel) {
+    if (currentModels instanceof ControllerModelList) {
+      int index = ((ControllerModelList) currentModels).getIdIndex().get(targetModel.id());
+      return index == ModelIdIndex.NO_POSITION ? index : windowStart + index;
+    }
+
     int size = currentModels.size();
     for (int i = 0; i < size; i++) {
       EpoxyModel<?> model = currentModels.get(i);
       if (model.id() == targetModel.id()) {
-        return i;
+        return windowStart + i;
       }
     }
 
     return -1;
   }
+
+  /** Supplies the items outside of the window of a windowed data set. Called on the main thread. */
+  interface WindowedItemSource {
+    /** The stable id of the item at this adapter position. */
+    long getItemId(int position);
+
+    /** A placeholder model for the item at this adapter position. */
+    EpoxyModel<?> buildPlaceholderModel(int position);
+  }
+
+  /** The ids and view types of a list of models, taken once when the models are set. */
+  private static final class ModelSnapshot {
+    static final ModelSnapshot EMPTY = new ModelSnapshot(0);
+
+    final long[] ids;
+    final int[] viewTypes;
+
+    ModelSnapshot(int size) {
+      ids = new long[size];
+      viewTypes = new int[size];
+    }
+
+    /**
+     * Snapshot all of the models. Models are frozen once they are built, so this is safe to do on
+     * the diffing thread.
+     */
+    static ModelSnapshot of(List<EpoxyModel<?>> models) {
+      ModelSnapshot snapshot = new ModelSnapshot(models.size());
+      snapshot.fill(models, 0, models.size());
+      return snapshot;
+    }
+
+    void fill(List<EpoxyModel<?>> models, int start, int end) {
+      for (int i = start; i < end; i++) {
+        EpoxyModel<?> model = models.get(i);
+        ids[i] = model.id();
+        viewTypes[i] = ViewTypeManager.getViewTypeInternal(model);
+      }
+    }
+  }
 }
@@ -5,9 +5,8 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import com.airbnb.epoxy.EpoxyController.ModelInterceptorCallback;
-
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Helper to bind data to a view using a builder style. The parameterized type should extend
@@ -18,9 +17,10 @@ public abstract class EpoxyModel<T> {
   /**
    * Counts how many of these objects are created, so that each new object can have a unique id .
    * Uses negative values so that these autogenerated ids don't clash with database ids that may be
-   * set with {@link #id(long)}
+   * set with {@link #id(long)}. Models may be created on several threads at once, so the counter is
+   * atomic.
    */
-  private static long idCounter = -1;
+  private static final AtomicLong idCounter = new AtomicLong(-1);
 
   /**
    * An id that can be used to uniquely identify this {@link EpoxyModel} for use in RecyclerView
@@ -56,7 +56,7 @@ public abstract class EpoxyModel<T> {
   }
 
   public EpoxyModel() {
-    this(idCounter--);
+    this(idCounter.getAndDecrement());
     hasDefaultId = true;
   }
 
@@ -133,6 +133,29 @@ public abstract class EpoxyModel<T> {
     bind(view);
   }
 
+  /**
+   * Similar to {@link #bind(Object, EpoxyModel)}, but instead of the previously bound model this
+   * provides which attributes changed since it was bound. The generated model of a class annotated
+   * with {@link EpoxyModelClass} calls this when it is rebound with a previously bound model of the
+   * same generated type, so you can update only the parts of the view that changed, such as
+   * skipping an image that is already loaded.
+   *
+   * @param changedAttributes A bit flag is set for each {@link EpoxyAttribute} that is not equal to
+   *                          the attribute on the previously bound model. The generated model class
+   *                          has a constant for the flag of each attribute, named with the
+   *                          attribute name in upper snake case and an "ATTRIBUTE_" prefix, eg
+   *                          "ATTRIBUTE_IMAGE_URL". Attributes that are not hashed are flagged
+   *                          whenever the instance changed.
+   *                          <p>
+   *                          This is not called if the model class or a superclass implements
+   *                          {@link #bind(Object, EpoxyModel)} itself, if it has more than 64
+   *                          attributes, or if two attribute names have the same constant name,
+   *                          such as "imageUrl" and "image_url".
+   */
+  public void bind(T view, long changedAttributes) {
+    bind(view);
+  }
+
   /**
    * Called when the view bound to this model is recycled. Subclasses can override this if their
    * view should release resources when it's recycled.
@@ -222,12 +245,16 @@ public abstract class EpoxyModel<T> {
    * @see EpoxyModel#hashLong64Bit(long)
    */
   public EpoxyModel<T> id(CharSequence key, long id) {
-    long result = hashString64Bit(key);
-    result = 31 * result + hashLong64Bit(id);
-    id(result);
+    id(hashKeyedId(key, id));
     return this;
   }
 
+  /** The id that {@link #id(CharSequence, long)} sets for the given key and id. */
+  static long hashKeyedId(CharSequence key, long id) {
+    long result = hashString64Bit(key);
+    return 31 * result + hashLong64Bit(id);
+  }
+
   /**
    * Hash a long into 64 bits instead of the normal 32. This uses a xor shift implementation to
    * attempt psuedo randomness so object ids have an even spread for less chance of collisions.
@@ -340,10 +367,15 @@ public abstract class EpoxyModel<T> {
       throw new IllegalArgumentException("Controller cannot be null");
     }
 
-    if (controller.isModelAddedMultipleTimes(this)) {
-      throw new IllegalEpoxyUsage(
+    if (!controller.shouldValidateModel(this)) {
+      return;
+    }
+
+    if (!controller.addValidatedModel(this)) {
+      controller.onModelValidationFailed(new IllegalEpoxyUsage(
           "This model was already added to the controller at position "
-              + controller.getFirstIndexOfModelInBuildingList(this));
+              + controller.getFirstIndexOfModelInBuildingList(this)));
+      return;
     }
 
     if (firstControllerAddedTo == null) {
@@ -357,21 +389,24 @@ public abstract class EpoxyModel<T> {
       // that we need to update the hashCode after interceptors have been run.
       // The model can be added to multiple controllers, but we only allow an interceptor change
       // the first time, since after that it will have been added to an adapter.
-      controller.addAfterInterceptorCallback(new ModelInterceptorCallback() {
-        @Override
-        public void onInterceptorsStarted(EpoxyController controller) {
-          currentlyInInterceptors = true;
-        }
-
-        @Override
-        public void onInterceptorsFinished(EpoxyController controller) {
-          hashCodeWhenAdded = EpoxyModel.this.hashCode();
-          currentlyInInterceptors = false;
-        }
-      });
+      controller.addModelChangeableByInterceptors(this);
     }
   }
 
+  /** Called by the controller this model was first added to, before its interceptors are run. */
+  void onInterceptorsStarted() {
+    currentlyInInterceptors = true;
+  }
+
+  /**
+   * Called by the controller this model was first added to, after its interceptors are run. The
+   * hash code is saved again to include any changes the interceptors made.
+   */
+  void onInterceptorsFinished() {
+    hashCodeWhenAdded = hashCode();
+    currentlyInInterceptors = false;
+  }
+
   boolean isDebugValidationEnabled() {
     return firstControllerAddedTo != null;
   }
@@ -391,8 +426,8 @@ public abstract class EpoxyModel<T> {
     // and added to an adapter in one controller we don't want to even allow interceptors
     // from changing the model in a different controller
     if (isDebugValidationEnabled() && !currentlyInInterceptors) {
-      throw new ImmutableModelException(this,
-          getPosition(firstControllerAddedTo, this));
+      firstControllerAddedTo.onModelValidationFailed(
+          new ImmutableModelException(this, getPosition(firstControllerAddedTo, this)));
     }
 
     if (controllerToStageTo != null) {
@@ -425,7 +460,12 @@ public abstract class EpoxyModel<T> {
     if (isDebugValidationEnabled()
         && !currentlyInInterceptors
         && hashCodeWhenAdded != hashCode()) {
-      throw new ImmutableModelException(this, descriptionOfChange, modelPosition);
+      firstControllerAddedTo.onModelValidationFailed(
+          new ImmutableModelException(this, descriptionOfChange, modelPosition));
+
+      // The failure was only reported and the model keeps being used, so the change is accepted to
+      // report it just once
+      hashCodeWhenAdded = hashCode();
     }
   }
 
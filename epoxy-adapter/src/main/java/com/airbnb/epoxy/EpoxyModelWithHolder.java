@@ -33,6 +33,11 @@ public abstract class EpoxyModelWithHolder<T extends EpoxyHolder> extends EpoxyM
     super.bind(holder, previouslyBoundModel);
   }
 
+  @Override
+  public void bind(T holder, long changedAttributes) {
+    super.bind(holder, changedAttributes);
+  }
+
   @Override
   public void unbind(T holder) {
     super.unbind(holder);
@@ -13,12 +13,15 @@ import android.view.ViewGroup;
  * means that all models that return the same type should be able to share the same view, and the
  * view won't be shared with models of any other type.
  * <p>
- * If it is left unimplemented then at runtime a unique view type will be created to use for all
- * models of that class. The generated view type will be negative so that it cannot collide with
- * values from resource files, which are used in normal Epoxy models. If you would like to share
- * the same view between models of different classes you can have those classes return the same view
- * type. A good way to manually create a view type value is by creating an R.id. value in an ids
- * resource file.
+ * If it is left unimplemented then a unique view type will be used for all models of that class.
+ * Models generated by the annotation processor get a constant view type derived from the generated
+ * class name, and for other models one is created at runtime. If models from different modules are
+ * generated with the same view type an exception is thrown once both are used, and one of them
+ * should implement this method instead. The generated view type will be negative so that it cannot
+ * collide with values from resource files, which are used in normal Epoxy models. If you would
+ * like to share the same view between models of different classes you can have those classes
+ * return the same view type. A good way to manually create a view type value is by creating an
+ * R.id. value in an ids resource file.
  */
 public abstract class EpoxyModelWithView<T extends View> extends EpoxyModel<T> {
 
@@ -4,6 +4,7 @@ package com.airbnb.epoxy;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
+import android.view.View.OnClickListener;
 
 import java.util.List;
 
@@ -52,6 +53,19 @@ public class EpoxyViewHolder extends RecyclerView.ViewHolder {
     epoxyModel = model;
   }
 
+  /**
+   * Used by generated models to point the view click listener of a model click listener attribute
+   * at this holder, so that clicks report the bound object and the adapter position of this holder.
+   * The listener is created once by the model's setter and reused every time the model is bound.
+   * Binding only updates the holder it refers to, which isn't part of the listener's equals and
+   * hashCode, so the model's state doesn't change.
+   */
+  public void bindModelClickListener(@Nullable OnClickListener clickListener) {
+    if (clickListener instanceof WrappedEpoxyModelClickListener) {
+      ((WrappedEpoxyModelClickListener) clickListener).setViewHolder(this);
+    }
+  }
+
   Object objectToBind() {
     return epoxyHolder != null ? epoxyHolder : itemView;
   }
@@ -0,0 +1,55 @@
+package com.airbnb.epoxy;
+
+/**
+ * The move detection used by {@link DiffStrategy#INCREASING_SUBSEQUENCE}. This finds the items
+ * that don't need to move with the patience sorting algorithm for the longest increasing
+ * subsequence, which takes O(n log n) time no matter how many items moved.
+ */
+class IncreasingSubsequenceMoveDetector extends SubsequenceMoveDetector {
+  /** For each subsequence length, the position ending the subsequence with the lowest target. */
+  private int[] subsequenceTails = new int[0];
+  /** For each position, the position before it in the longest subsequence ending with it. */
+  private int[] subsequencePrevious = new int[0];
+
+  @Override
+  int findStableItems(int itemCount) {
+    if (subsequenceTails.length < itemCount) {
+      subsequenceTails = new int[itemCount];
+      subsequencePrevious = new int[itemCount];
+    }
+
+    int length = 0;
+    for (int position = 0; position < itemCount; position++) {
+      int target = targetPositions[position];
+
+      // Binary search for the shortest subsequence whose last target is greater than this one
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (targetPositions[subsequenceTails[mid]] < target) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      subsequencePrevious[position] = low > 0 ? subsequenceTails[low - 1] : -1;
+      subsequenceTails[low] = position;
+      if (low == length) {
+        length++;
+      }
+
+      stable[position] = false;
+    }
+
+    if (length > 0) {
+      for (int position = subsequenceTails[length - 1]; position != -1;
+          position = subsequencePrevious[position]) {
+        stable[position] = true;
+      }
+    }
+
+    return length;
+  }
+}
@@ -0,0 +1,66 @@
+package com.airbnb.epoxy;
+
+import android.support.annotation.Nullable;
+import android.support.v4.util.LongSparseArray;
+
+/**
+ * Remembers the models built for each id along with a key for the data they were built from, so
+ * that the next model build can reuse a model instead of creating it again if its data hasn't
+ * changed.
+ * <p>
+ * Only models that were cached or reused in the most recent build are kept, so the cache never
+ * holds more than one build's worth of models.
+ */
+class ModelCache {
+  private LongSparseArray<CachedModel> previousBuild = new LongSparseArray<>();
+  private LongSparseArray<CachedModel> currentBuild = new LongSparseArray<>();
+
+  /**
+   * Returns the latest model cached for this id if it was built from an equal data key, otherwise
+   * null. A returned model is kept in the cache for the next build as well.
+   */
+  @Nullable
+  EpoxyModel<?> get(long id, @Nullable Object dataKey) {
+    // Section builds don't finish a build generation, so models they cached are still current
+    CachedModel cachedModel = currentBuild.get(id);
+    if (cachedModel == null) {
+      cachedModel = previousBuild.get(id);
+    }
+
+    if (cachedModel == null || !keysEqual(cachedModel.dataKey, dataKey)) {
+      return null;
+    }
+
+    currentBuild.put(id, cachedModel);
+    return cachedModel.model;
+  }
+
+  void put(EpoxyModel<?> model, @Nullable Object dataKey) {
+    currentBuild.put(model.id(), new CachedModel(model, dataKey));
+  }
+
+  /**
+   * Called once models are built. Models cached during that build become available to the next
+   * one, and any that weren't used are dropped.
+   */
+  void onModelsBuilt() {
+    LongSparseArray<CachedModel> temp = previousBuild;
+    previousBuild = currentBuild;
+    currentBuild = temp;
+    currentBuild.clear();
+  }
+
+  private static boolean keysEqual(@Nullable Object key1, @Nullable Object key2) {
+    return key1 == key2 || (key1 != null && key1.equals(key2));
+  }
+
+  private static class CachedModel {
+    final EpoxyModel<?> model;
+    @Nullable final Object dataKey;
+
+    CachedModel(EpoxyModel<?> model, @Nullable Object dataKey) {
+      this.model = model;
+      this.dataKey = dataKey;
+    }
+  }
+}
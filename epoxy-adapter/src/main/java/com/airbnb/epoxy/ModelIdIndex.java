@@ -0,0 +1,78 @@
+package com.airbnb.epoxy;
+
+import java.util.List;
+
+/**
+ * A map of model id to the position of the model in a list of models. If the list has models with
+ * duplicate ids, the position of the first one is kept.
+ * <p>
+ * Like {@link ModelStateMap} this uses open addressing with linear probing on primitive long keys,
+ * so ids are never boxed and no entry objects are created.
+ */
+class ModelIdIndex {
+  static final int NO_POSITION = -1;
+  private static final int MIN_CAPACITY = 16;
+
+  private final long[] keys;
+  /** Positions plus one, so that a slot holding 0 is empty. */
+  private final int[] values;
+
+  /** Create an index with room for the given number of ids. The index doesn't grow past it. */
+  ModelIdIndex(int maxSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < maxSize * 2) {
+      capacity <<= 1;
+    }
+
+    keys = new long[capacity];
+    values = new int[capacity];
+  }
+
+  /** Create an index of all the models in the list. */
+  static ModelIdIndex create(List<? extends EpoxyModel<?>> models) {
+    int size = models.size();
+    ModelIdIndex index = new ModelIdIndex(size);
+    for (int i = 0; i < size; i++) {
+      index.putIfAbsent(models.get(i).id(), i);
+    }
+    return index;
+  }
+
+  /** The position of the model with this id, or {@link #NO_POSITION} if there is none. */
+  int get(long id) {
+    int mask = values.length - 1;
+    for (int i = indexFor(id, mask); values[i] != 0; i = (i + 1) & mask) {
+      if (keys[i] == id) {
+        return values[i] - 1;
+      }
+    }
+
+    return NO_POSITION;
+  }
+
+  /**
+   * Store the position for this id, unless the id already has a position.
+   *
+   * @return The position already stored for the id, or {@link #NO_POSITION} if the given position
+   * was stored.
+   */
+  int putIfAbsent(long id, int position) {
+    int mask = values.length - 1;
+    int i = indexFor(id, mask);
+    for (; values[i] != 0; i = (i + 1) & mask) {
+      if (keys[i] == id) {
+        return values[i] - 1;
+      }
+    }
+
+    keys[i] = id;
+    values[i] = position + 1;
+    return NO_POSITION;
+  }
+
+  private static int indexFor(long id, int mask) {
+    // Same mixing as ModelStateMap, since ids are often sequential or hashes of strings
+    long hash = id * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
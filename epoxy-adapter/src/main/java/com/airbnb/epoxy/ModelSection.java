@@ -0,0 +1,34 @@
+package com.airbnb.epoxy;
+
+/**
+ * A group of consecutive models in an {@link EpoxyController} that can be rebuilt on its own, such
+ * as a header, a feed, or a footer. Add the section from {@link EpoxyController#buildModels()} with
+ * {@link EpoxyController#addSection(ModelSection)}, and call {@link
+ * EpoxyController#requestSectionBuild(ModelSection)} when only the data shown by the section has
+ * changed. Only this section's models are then rebuilt and diffed, and the models of the rest of
+ * the controller are left as they are.
+ * <p>
+ * A section can only be added to one controller.
+ */
+public abstract class ModelSection {
+  /** The controller this section was added to, or null if it hasn't been added yet. */
+  EpoxyController controller;
+  /** The position of this section's first model in the controller's last built models. */
+  int modelStart;
+  /** How many models this section had in the controller's last built models. */
+  int modelCount;
+
+  final Runnable buildRunnable = new Runnable() {
+    @Override
+    public void run() {
+      controller.dispatchSectionBuild(ModelSection.this);
+    }
+  };
+
+  /**
+   * Add the models for this section to the controller, in the order they should be shown. This is
+   * called both when the controller builds all of its models and when only this section is rebuilt,
+   * and follows the same rules as {@link EpoxyController#buildModels()}.
+   */
+  protected abstract void buildModels(EpoxyController controller);
+}
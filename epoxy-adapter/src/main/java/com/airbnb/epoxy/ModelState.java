@@ -26,31 +26,38 @@ class ModelState {
 
   static ModelState build(EpoxyModel<?> model, int position, boolean immutableModel) {
     ModelState state = new ModelState();
+    state.set(model, position, immutableModel);
+    return state;
+  }
 
-    state.lastMoveOp = 0;
-    state.pair = null;
-    state.id = model.id();
-    state.position = position;
+  /** Sets this state to represent the given model. Any previous state is overwritten. */
+  void set(EpoxyModel<?> model, int position, boolean immutableModel) {
+    lastMoveOp = 0;
+    pair = null;
+    id = model.id();
+    this.position = position;
 
     if (immutableModel) {
-      state.model = model;
+      this.model = model;
+      hashCode = 0;
     } else {
-      state.hashCode = model.hashCode();
+      this.model = null;
+      hashCode = model.hashCode();
     }
-
-    return state;
   }
 
   /**
    * Used for an item inserted into the new list when we need to track moves that effect the
    * inserted item in the old list.
+   *
+   * @param pair An unused state to hold a copy of this item.
    */
-  void pairWithSelf() {
-    if (pair != null) {
+  void pairWithSelf(ModelState pair) {
+    if (this.pair != null) {
       throw new IllegalStateException("Already paired.");
     }
 
-    pair = new ModelState();
+    this.pair = pair;
     pair.lastMoveOp = 0;
     pair.id = id;
     pair.position = position;
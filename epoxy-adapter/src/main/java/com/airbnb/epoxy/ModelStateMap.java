@@ -0,0 +1,179 @@
+package com.airbnb.epoxy;
+
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A map of model id to {@link ModelState}, used by {@link DiffHelper} to look up states by id.
+ * <p>
+ * This uses open addressing with linear probing on primitive long keys, so ids are never boxed and
+ * no entry objects are created. The backing arrays are kept when the map is cleared, which lets a
+ * map be reused for every diff without allocating as long as the model count doesn't grow.
+ */
+class ModelStateMap {
+  private static final int MIN_CAPACITY = 16;
+
+  /** Ids of the stored states. A slot is only in use if the value at the same index is not null. */
+  private long[] keys;
+  private ModelState[] values;
+  private int size;
+
+  ModelStateMap() {
+    this(0);
+  }
+
+  ModelStateMap(int expectedSize) {
+    int capacity = capacityFor(expectedSize);
+    keys = new long[capacity];
+    values = new ModelState[capacity];
+  }
+
+  /**
+   * Grow the map if needed so that it can hold the given number of states without resizing while
+   * they are added.
+   */
+  void ensureCapacity(int expectedSize) {
+    int capacity = capacityFor(expectedSize);
+    if (capacity > values.length) {
+      resize(capacity);
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** The number of slots currently allocated for storing states. */
+  int capacity() {
+    return values.length;
+  }
+
+  @Nullable
+  ModelState get(long id) {
+    int mask = values.length - 1;
+    for (int i = indexFor(id, mask); values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == id) {
+        return values[i];
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Add the state to the map, keyed by its id.
+   *
+   * @return The state that was previously stored with the same id, or null if there was none.
+   */
+  @Nullable
+  ModelState put(ModelState state) {
+    long id = state.id;
+    int mask = values.length - 1;
+    int i = indexFor(id, mask);
+    for (; values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == id) {
+        ModelState previousValue = values[i];
+        values[i] = state;
+        return previousValue;
+      }
+    }
+
+    keys[i] = id;
+    values[i] = state;
+    size++;
+
+    // Keep the load factor at 1/2 so probe sequences stay short
+    if (size * 2 > values.length) {
+      resize(values.length * 2);
+    }
+
+    return null;
+  }
+
+  @Nullable
+  ModelState remove(long id) {
+    int mask = values.length - 1;
+    int i = indexFor(id, mask);
+    for (; values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == id) {
+        break;
+      }
+    }
+
+    ModelState removedValue = values[i];
+    if (removedValue == null) {
+      return null;
+    }
+
+    size--;
+
+    // Shift later entries in the probe sequence back so that none of them are cut off from their
+    // ideal slot by the now empty slot.
+    int emptySlot = i;
+    for (i = (i + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+      int idealSlot = indexFor(keys[i], mask);
+      boolean reachableFromEmptySlot = emptySlot <= i
+          ? emptySlot < idealSlot && idealSlot <= i
+          : emptySlot < idealSlot || idealSlot <= i;
+
+      if (!reachableFromEmptySlot) {
+        keys[emptySlot] = keys[i];
+        values[emptySlot] = values[i];
+        emptySlot = i;
+      }
+    }
+
+    values[emptySlot] = null;
+    return removedValue;
+  }
+
+  /** Remove all states while keeping the allocated storage for reuse. */
+  void clear() {
+    if (size == 0) {
+      return;
+    }
+
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  private void resize(int newCapacity) {
+    long[] oldKeys = keys;
+    ModelState[] oldValues = values;
+
+    keys = new long[newCapacity];
+    values = new ModelState[newCapacity];
+
+    int mask = newCapacity - 1;
+    for (int i = 0; i < oldValues.length; i++) {
+      ModelState value = oldValues[i];
+      if (value == null) {
+        continue;
+      }
+
+      int index = indexFor(oldKeys[i], mask);
+      while (values[index] != null) {
+        index = (index + 1) & mask;
+      }
+
+      keys[index] = oldKeys[i];
+      values[index] = value;
+    }
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private static int indexFor(long id, int mask) {
+    // Ids are often sequential or hashes of strings, so the bits are mixed before masking to spread
+    // them evenly across the table.
+    long hash = id * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
@@ -0,0 +1,69 @@
+package com.airbnb.epoxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recycles {@link ModelState} instances between diffs. Each diff discards the states of the list
+ * that was diffed previously, so holding on to them for the next diff lets repeated diffs of
+ * similar sized lists run without creating any new states.
+ * <p>
+ * This is not thread safe.
+ */
+class ModelStatePool {
+  private final ArrayList<ModelState> recycledStates = new ArrayList<>();
+  /** States created by {@link #pairWithSelf(ModelState)}, which aren't in any state list. */
+  private final ArrayList<ModelState> selfPairedStates = new ArrayList<>();
+
+  /** Get a state representing the given model, reusing a recycled state if one is available. */
+  ModelState obtain(EpoxyModel<?> model, int position, boolean immutableModel) {
+    int recycledCount = recycledStates.size();
+    ModelState state =
+        recycledCount == 0 ? new ModelState() : recycledStates.remove(recycledCount - 1);
+
+    state.set(model, position, immutableModel);
+    return state;
+  }
+
+  /**
+   * Pair the state with a copy of itself, as in {@link ModelState#pairWithSelf(ModelState)}. The
+   * copy is recycled on the next call to {@link #recycleSelfPairedStates()}.
+   */
+  void pairWithSelf(ModelState state) {
+    int recycledCount = recycledStates.size();
+    ModelState pair =
+        recycledCount == 0 ? new ModelState() : recycledStates.remove(recycledCount - 1);
+
+    state.pairWithSelf(pair);
+    selfPairedStates.add(pair);
+  }
+
+  /**
+   * Return the given states to the pool so they can be reused. The states must no longer be
+   * referenced by any state that is still in use.
+   */
+  void recycle(List<ModelState> states) {
+    int size = states.size();
+    recycledStates.ensureCapacity(recycledStates.size() + size);
+
+    for (int i = 0; i < size; i++) {
+      recycle(states.get(i));
+    }
+  }
+
+  /**
+   * Return all states created by {@link #pairWithSelf(ModelState)} to the pool. This must be called
+   * once the pairings from the previous diff are no longer needed.
+   */
+  void recycleSelfPairedStates() {
+    recycle(selfPairedStates);
+    selfPairedStates.clear();
+  }
+
+  private void recycle(ModelState state) {
+    // Drop references so recycled states don't keep models or other states from being collected
+    state.model = null;
+    state.pair = null;
+    recycledStates.add(state);
+  }
+}
@@ -0,0 +1,18 @@
+package com.airbnb.epoxy;
+
+import java.util.List;
+
+/** Finds the moves needed to reorder items as part of a diff. See {@link DiffStrategy}. */
+interface MoveDetector {
+
+  /**
+   * Add the moves needed to put the items of the old list in the order of the new list. Removals
+   * and insertions have already been collected, and the position of each old item with a pair
+   * reflects its position once those operations are applied. Inserted items are at their position
+   * in the new list.
+   *
+   * @param statePool Used for any extra states that are needed while finding moves.
+   */
+  void collectMoves(List<ModelState> oldStateList, List<ModelState> currentStateList,
+      ModelStatePool statePool, UpdateOpHelper helper);
+}
@@ -0,0 +1,165 @@
+package com.airbnb.epoxy;
+
+/**
+ * The move detection used by {@link DiffStrategy#MYERS}. This finds the items that don't need to
+ * move as the longest common subsequence of the current item order and the new item order, using
+ * the linear space version of Myers' O(ND) difference algorithm. D is the number of items that
+ * moved, so this is close to linear time when few items moved.
+ * <p>
+ * See "An O(ND) Difference Algorithm and Its Variations" by Eugene W. Myers.
+ */
+class MyersMoveDetector extends SubsequenceMoveDetector {
+  /** The furthest reaching forward path on each diagonal. */
+  private int[] forward = new int[0];
+  /** The furthest reaching backward path on each diagonal. */
+  private int[] backward = new int[0];
+
+  private int snakeStartX;
+  private int snakeStartY;
+  private int snakeEndX;
+  private int snakeEndY;
+
+  @Override
+  int findStableItems(int itemCount) {
+    int size = 2 * itemCount + 3;
+    if (forward.length < size) {
+      forward = new int[size];
+      backward = new int[size];
+    }
+
+    for (int position = 0; position < itemCount; position++) {
+      stable[position] = false;
+    }
+
+    return markCommonItems(0, itemCount, 0, itemCount);
+  }
+
+  /**
+   * Mark the longest common subsequence between the current order, given by positions in {@link
+   * #targetPositions}, and the new order, given by target positions.
+   *
+   * @return The number of items marked.
+   */
+  private int markCommonItems(int positionStart, int positionEnd, int targetStart, int targetEnd) {
+    int count = 0;
+
+    // Matching items at either end are always part of the subsequence
+    while (positionStart < positionEnd && targetStart < targetEnd
+        && targetPositions[positionStart] == targetStart) {
+      stable[positionStart] = true;
+      positionStart++;
+      targetStart++;
+      count++;
+    }
+
+    while (positionStart < positionEnd && targetStart < targetEnd
+        && targetPositions[positionEnd - 1] == targetEnd - 1) {
+      stable[positionEnd - 1] = true;
+      positionEnd--;
+      targetEnd--;
+      count++;
+    }
+
+    if (positionStart == positionEnd || targetStart == targetEnd) {
+      return count;
+    }
+
+    // The middle snake is part of an optimal path, so the problem can be split around it
+    findMiddleSnake(positionStart, positionEnd, targetStart, targetEnd);
+    int startX = snakeStartX;
+    int startY = snakeStartY;
+    int endX = snakeEndX;
+    int endY = snakeEndY;
+
+    for (int position = startX; position < endX; position++) {
+      stable[position] = true;
+    }
+    count += endX - startX;
+
+    count += markCommonItems(positionStart, startX, targetStart, startY);
+    count += markCommonItems(endX, positionEnd, endY, targetEnd);
+    return count;
+  }
+
+  /**
+   * Find the middle snake of the shortest edit path between the given ranges, by searching
+   * forward from the start and backward from the end until the paths overlap. The snake is stored
+   * in {@link #snakeStartX}, {@link #snakeStartY}, {@link #snakeEndX} and {@link #snakeEndY}.
+   */
+  private void findMiddleSnake(int positionStart, int positionEnd, int targetStart,
+      int targetEnd) {
+    int n = positionEnd - positionStart;
+    int m = targetEnd - targetStart;
+    int delta = n - m;
+    boolean deltaIsOdd = (delta & 1) != 0;
+    int maxEdits = (n + m + 1) / 2;
+
+    // Arrays are indexed by diagonal, which can be negative. Backward diagonals are relative to
+    // delta, which is the diagonal of the end point.
+    int offset = maxEdits + 1;
+    forward[offset + 1] = 0;
+    backward[offset - 1] = n;
+
+    for (int d = 0; d <= maxEdits; d++) {
+      for (int k = -d; k <= d; k += 2) {
+        int x;
+        if (k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])) {
+          x = forward[offset + k + 1];
+        } else {
+          x = forward[offset + k - 1] + 1;
+        }
+
+        int y = x - k;
+        int startX = x;
+        int startY = y;
+        while (x >= 0 && y >= 0 && x < n && y < m
+            && targetPositions[positionStart + x] == targetStart + y) {
+          x++;
+          y++;
+        }
+        forward[offset + k] = x;
+
+        if (deltaIsOdd && k >= delta - (d - 1) && k <= delta + (d - 1)
+            && x >= backward[offset + k - delta]) {
+          setSnake(positionStart + startX, targetStart + startY, positionStart + x,
+              targetStart + y);
+          return;
+        }
+      }
+
+      for (int j = -d; j <= d; j += 2) {
+        int k = j + delta;
+        int x;
+        if (j == d || (j != -d && backward[offset + j - 1] < backward[offset + j + 1])) {
+          x = backward[offset + j - 1];
+        } else {
+          x = backward[offset + j + 1] - 1;
+        }
+
+        int y = x - k;
+        int endX = x;
+        int endY = y;
+        while (x > 0 && y > 0 && x <= n && y <= m
+            && targetPositions[positionStart + x - 1] == targetStart + y - 1) {
+          x--;
+          y--;
+        }
+        backward[offset + j] = x;
+
+        if (!deltaIsOdd && k >= -d && k <= d && x <= forward[offset + k]) {
+          setSnake(positionStart + x, targetStart + y, positionStart + endX, targetStart + endY);
+          return;
+        }
+      }
+    }
+
+    throw new IllegalStateException("No middle snake found");
+  }
+
+  private void setSnake(int startX, int startY, int endX, int endY) {
+    snakeStartX = startX;
+    snakeStartY = startY;
+    snakeEndX = endX;
+    snakeEndY = endY;
+  }
+}
@@ -0,0 +1,226 @@
+package com.airbnb.epoxy;
+
+import android.os.Handler;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link EpoxyController} for data that is loaded in pages of a fixed size, such as from a
+ * paginated server api. Set the total number of items with {@link #setTotalItemCount(int)}, and
+ * items that haven't been loaded yet are shown with placeholder models. Pages are requested from
+ * the {@link PageSource} when their items are bound, and ahead of time when binding gets close to a
+ * page that isn't loaded. Submit each loaded page with {@link #submitPage(int, List)}.
+ * <p>
+ * Each page is built as its own {@link ModelSection}, so when a page is submitted only that page's
+ * models are built and diffed.
+ * <p>
+ * You should NOT call {@link #requestModelBuild()} directly.
+ *
+ * @param <T> The type of item that is loaded.
+ */
+public abstract class PagedEpoxyController<T> extends EpoxyController {
+  /** Used to cache placeholders, which don't depend on any item. */
+  private static final Object PLACEHOLDER_DATA_KEY = new Object();
+  private static final String PLACEHOLDER_ID_KEY = "PagedEpoxyController placeholder";
+
+  private final int pageSize;
+  /** The pages known so far. Pages are only added, and are read when models are built. */
+  private final List<Page> pages = new ArrayList<>();
+  @Nullable private PageSource pageSource;
+  private int prefetchDistance;
+  private volatile int totalItemCount;
+  /** The item count of the last built models. Only used on the model building thread. */
+  private int builtItemCount;
+  private boolean insideDataUpdate;
+
+  /** Loads pages of items for a {@link PagedEpoxyController}. */
+  public interface PageSource {
+    /**
+     * Start loading the items of the given page. Once they are loaded submit them on the main
+     * thread with {@link PagedEpoxyController#submitPage(int, List)}, or if loading fails call
+     * {@link PagedEpoxyController#notifyPageLoadFailed(int)}. This is called on the main thread,
+     * and won't be called again for the same page while it is loading.
+     *
+     * @param pageIndex The index of the page, whose first item is at pageIndex * pageSize.
+     * @param pageSize  How many items the page should have. Only the last page may have fewer.
+     */
+    void loadPage(int pageIndex, int pageSize);
+  }
+
+  public PagedEpoxyController(int pageSize) {
+    this(pageSize, new Handler());
+  }
+
+  /** @see EpoxyController#EpoxyController(Handler) */
+  public PagedEpoxyController(int pageSize, Handler modelBuildingHandler) {
+    super(modelBuildingHandler);
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+    }
+
+    this.pageSize = pageSize;
+    prefetchDistance = pageSize;
+  }
+
+  /** Create the model for a loaded item. The model must have its id set. */
+  protected abstract EpoxyModel<?> buildItemModel(int position, T item);
+
+  /**
+   * Create a placeholder model for an item that isn't loaded yet. The placeholder's id is set for
+   * you. Placeholders are created once per position and then reused, and should generally be about
+   * the size of the item's real model so that scroll positions stay accurate.
+   */
+  protected abstract EpoxyModel<?> buildPlaceholderModel(int position);
+
+  /** Set the source that pages are loaded from. Must be called on the main thread. */
+  public void setPageSource(@Nullable PageSource pageSource) {
+    this.pageSource = pageSource;
+  }
+
+  /**
+   * Set how many items ahead of a bound item should already be loaded. When an item is bound, the
+   * page with the item this far after it is loaded if it isn't yet. Defaults to the page size.
+   */
+  public void setPrefetchDistance(int itemCount) {
+    if (itemCount < 0) {
+      throw new IllegalArgumentException("Prefetch distance cannot be negative: " + itemCount);
+    }
+
+    prefetchDistance = itemCount;
+  }
+
+  /**
+   * Set the total number of items, including ones that aren't loaded yet. All models are rebuilt.
+   * Must be called on the main thread.
+   */
+  public void setTotalItemCount(int totalItemCount) {
+    if (totalItemCount < 0) {
+      throw new IllegalArgumentException("Item count cannot be negative: " + totalItemCount);
+    }
+
+    this.totalItemCount = totalItemCount;
+    insideDataUpdate = true;
+    requestModelBuild();
+    insideDataUpdate = false;
+  }
+
+  /**
+   * Submit the loaded items of a page, replacing any items it had before. Only the models of this
+   * page are rebuilt. Pages must have as many items as the page size, except for the last page. The
+   * list must not be changed afterwards. Must be called on the main thread.
+   */
+  public void submitPage(int pageIndex, List<T> items) {
+    Page page = getPage(pageIndex);
+    page.items = items;
+    page.loading = false;
+    insideDataUpdate = true;
+    requestSectionBuild(page);
+    insideDataUpdate = false;
+  }
+
+  /**
+   * Report that loading a page failed, so that it isn't considered to be loading anymore. The page
+   * is requested again the next time one of its items is bound or prefetched, or right away with
+   * {@link #retryPage(int)}. Must be called on the main thread.
+   */
+  public void notifyPageLoadFailed(int pageIndex) {
+    getPage(pageIndex).loading = false;
+  }
+
+  /**
+   * Request a page from the {@link PageSource} if it isn't loaded or loading already, for example
+   * to retry a page after {@link #notifyPageLoadFailed(int)}. Must be called on the main thread.
+   */
+  public void retryPage(int pageIndex) {
+    loadPageIfNeeded(pageIndex);
+  }
+
+  @Override
+  public final void requestModelBuild() {
+    if (!insideDataUpdate) {
+      throw new IllegalEpoxyUsage(
+          "You cannot call `requestModelBuild` directly. Call `setTotalItemCount` or `submitPage` "
+              + "instead.");
+    }
+    super.requestModelBuild();
+  }
+
+  @Override
+  protected final void buildModels() {
+    builtItemCount = totalItemCount;
+    int pageCount = (builtItemCount + pageSize - 1) / pageSize;
+    for (int i = 0; i < pageCount; i++) {
+      addSection(getPage(i));
+    }
+  }
+
+  @Override
+  void onModelBoundInternal(EpoxyViewHolder holder, EpoxyModel<?> boundModel, int position,
+      @Nullable EpoxyModel<?> previouslyBoundModel) {
+    super.onModelBoundInternal(holder, boundModel, position, previouslyBoundModel);
+    loadPageIfNeeded(position / pageSize);
+    loadPageIfNeeded((position + prefetchDistance) / pageSize);
+  }
+
+  private void loadPageIfNeeded(int pageIndex) {
+    if (pageSource == null || pageIndex * pageSize >= totalItemCount) {
+      return;
+    }
+
+    Page page = getPage(pageIndex);
+    if (page.items != null || page.loading) {
+      return;
+    }
+
+    page.loading = true;
+    pageSource.loadPage(pageIndex, pageSize);
+  }
+
+  private Page getPage(int pageIndex) {
+    synchronized (pages) {
+      while (pages.size() <= pageIndex) {
+        pages.add(new Page(pages.size()));
+      }
+      return pages.get(pageIndex);
+    }
+  }
+
+  private void addPlaceholderModel(int position) {
+    long id = EpoxyModel.hashKeyedId(PLACEHOLDER_ID_KEY, position);
+    EpoxyModel<?> model = getCachedModel(id, PLACEHOLDER_DATA_KEY);
+    if (model == null) {
+      model = buildPlaceholderModel(position).id(id);
+      cacheModel(model, PLACEHOLDER_DATA_KEY);
+    }
+    add(model);
+  }
+
+  private class Page extends ModelSection {
+    private final int index;
+    /** The loaded items, or null if the page isn't loaded. */
+    @Nullable private volatile List<T> items;
+    /** True while the page is being loaded. Only used on the main thread. */
+    private boolean loading;
+
+    Page(int index) {
+      this.index = index;
+    }
+
+    @Override
+    protected void buildModels(EpoxyController controller) {
+      int start = index * pageSize;
+      int end = Math.min(start + pageSize, builtItemCount);
+      List<T> items = this.items;
+      for (int position = start; position < end; position++) {
+        int indexInPage = position - start;
+        if (items != null && indexInPage < items.size()) {
+          add(buildItemModel(position, items.get(indexInPage)));
+        } else {
+          addPlaceholderModel(position);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.airbnb.epoxy;
+
+import java.util.List;
+
+/**
+ * Base for move detectors that find the fewest moves needed, based on a longest common subsequence
+ * of the old and new item order.
+ * <p>
+ * Once removals and insertions have been applied, each item has a current position and a target
+ * position in the new list. Subclasses find the largest set of items whose target positions are
+ * already increasing, since those are in the correct order relative to each other and don't need
+ * to move. Only the other items are moved, which gives the fewest moves possible. They are moved in
+ * order of their target position, each directly after the item that precedes it in the new list,
+ * and a Fenwick tree tracks the current position of every item as moves are made, so the moves
+ * are made in O(n log n) time.
+ * <p>
+ * The working arrays are kept between diffs. This is not thread safe.
+ */
+abstract class SubsequenceMoveDetector implements MoveDetector {
+  /** For each position after removals and insertions, the position of that item in the new list. */
+  int[] targetPositions = new int[0];
+  /** True for positions of items that don't need to move. */
+  boolean[] stable = new boolean[0];
+  /** The inverse of {@link #targetPositions}. */
+  private int[] positionsByTarget = new int[0];
+  /**
+   * Slots in the Fenwick tree for each item once it is in its final place, indexed by target
+   * position.
+   */
+  private int[] placedSlots = new int[0];
+  /** Slots in the Fenwick tree for each item that hasn't moved yet, indexed by position. */
+  private int[] unplacedSlots = new int[0];
+  private int[] tree = new int[0];
+
+  /**
+   * Find the longest subsequence of {@link #targetPositions} whose values are increasing, and mark
+   * the positions in it in {@link #stable}. All other positions must be marked as not stable.
+   *
+   * @return The number of stable positions.
+   */
+  abstract int findStableItems(int itemCount);
+
+  @Override
+  public void collectMoves(List<ModelState> oldStateList, List<ModelState> currentStateList,
+      ModelStatePool statePool, UpdateOpHelper helper) {
+    int itemCount = currentStateList.size();
+    ensureCapacity(itemCount);
+
+    // Items that were inserted are already at their target position
+    for (int i = 0; i < itemCount; i++) {
+      ModelState newItem = currentStateList.get(i);
+      if (newItem.pair == null) {
+        targetPositions[newItem.position] = newItem.position;
+      }
+    }
+
+    int oldItemCount = oldStateList.size();
+    for (int i = 0; i < oldItemCount; i++) {
+      ModelState oldItem = oldStateList.get(i);
+      if (oldItem.pair != null) {
+        targetPositions[oldItem.position] = oldItem.pair.position;
+      }
+    }
+
+    for (int position = 0; position < itemCount; position++) {
+      positionsByTarget[targetPositions[position]] = position;
+    }
+
+    int stableCount = findStableItems(itemCount);
+    if (stableCount == itemCount) {
+      // Everything is already in order
+      return;
+    }
+
+    assignSlots(itemCount);
+
+    int slotCount = 2 * itemCount - stableCount;
+    for (int i = 0; i <= slotCount; i++) {
+      tree[i] = 0;
+    }
+
+    for (int position = 0; position < itemCount; position++) {
+      if (stable[position]) {
+        addToTree(placedSlots[targetPositions[position]], 1, slotCount);
+      } else {
+        addToTree(unplacedSlots[position], 1, slotCount);
+      }
+    }
+
+    for (int target = 0; target < itemCount; target++) {
+      int position = positionsByTarget[target];
+      if (stable[position]) {
+        continue;
+      }
+
+      int unplacedSlot = unplacedSlots[position];
+      int fromPosition = countBefore(unplacedSlot);
+      addToTree(unplacedSlot, -1, slotCount);
+
+      int placedSlot = placedSlots[target];
+      int toPosition = countBefore(placedSlot);
+      addToTree(placedSlot, 1, slotCount);
+
+      if (fromPosition != toPosition) {
+        helper.move(fromPosition, toPosition);
+      }
+    }
+  }
+
+  /**
+   * Lay out the slots of the Fenwick tree so they are in list order at every step of the moves.
+   * Stable items split the list into gaps. Items that haven't moved yet stay in the gap they
+   * started in, and moved items are placed at the start of the gap they belong in, since they are
+   * moved in target order directly after the item before them. So each gap is made up of the
+   * stable item starting it, then slots for moved items in target order, and lastly slots for the
+   * unmoved items in their original order.
+   */
+  private void assignSlots(int itemCount) {
+    // Slots start at 1 since Fenwick trees are one based
+    int slot = 1;
+    int target = 0;
+    int position = 0;
+
+    while (target < itemCount || position < itemCount) {
+      // The next stable item ends this gap, or the end of the list if there are none left
+      int nextStablePosition = position;
+      while (nextStablePosition < itemCount && !stable[nextStablePosition]) {
+        nextStablePosition++;
+      }
+      int nextStableTarget =
+          nextStablePosition < itemCount ? targetPositions[nextStablePosition] : itemCount;
+
+      for (; target < nextStableTarget; target++) {
+        placedSlots[target] = slot++;
+      }
+
+      for (; position < nextStablePosition; position++) {
+        unplacedSlots[position] = slot++;
+      }
+
+      if (nextStablePosition < itemCount) {
+        // Start the next gap with its stable item
+        placedSlots[target] = slot++;
+        target++;
+        position++;
+      }
+    }
+  }
+
+  /** The number of items in slots before the given slot. */
+  private int countBefore(int slot) {
+    int count = 0;
+    for (int i = slot - 1; i > 0; i -= i & -i) {
+      count += tree[i];
+    }
+    return count;
+  }
+
+  private void addToTree(int slot, int delta, int slotCount) {
+    for (int i = slot; i <= slotCount; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  private void ensureCapacity(int itemCount) {
+    if (targetPositions.length >= itemCount) {
+      return;
+    }
+
+    targetPositions = new int[itemCount];
+    positionsByTarget = new int[itemCount];
+    stable = new boolean[itemCount];
+    placedSlots = new int[itemCount];
+    unplacedSlots = new int[itemCount];
+    tree = new int[2 * itemCount + 1];
+  }
+}
@@ -1,5 +1,7 @@
 package com.airbnb.epoxy;
 
+import android.os.Handler;
+
 /**
  * This is a wrapper around {@link com.airbnb.epoxy.EpoxyController} to simplify how data is
  * accessed. Use this if the data required to build your models is represented by two objects.
@@ -20,6 +22,14 @@ public abstract class Typed2EpoxyController<T, U> extends EpoxyController {
   private U data2;
   private boolean insideSetData;
 
+  public Typed2EpoxyController() {
+  }
+
+  /** @see EpoxyController#EpoxyController(Handler) */
+  public Typed2EpoxyController(Handler modelBuildingHandler) {
+    super(modelBuildingHandler);
+  }
+
   /**
    * Call this with the latest data when you want models to be rebuilt. The data will be passed on
    * to {@link #buildModels(Object, Object)}
@@ -1,5 +1,7 @@
 package com.airbnb.epoxy;
 
+import android.os.Handler;
+
 /**
  * This is a wrapper around {@link com.airbnb.epoxy.EpoxyController} to simplify how data is
  * accessed. Use this if the data required to build your models is represented by three objects.
@@ -21,6 +23,14 @@ public abstract class Typed3EpoxyController<T, U, V> extends EpoxyController {
   private V data3;
   private boolean insideSetData;
 
+  public Typed3EpoxyController() {
+  }
+
+  /** @see EpoxyController#EpoxyController(Handler) */
+  public Typed3EpoxyController(Handler modelBuildingHandler) {
+    super(modelBuildingHandler);
+  }
+
   /**
    * Call this with the latest data when you want models to be rebuilt. The data will be passed on
    * to {@link #buildModels(Object, Object, Object)}
@@ -1,5 +1,7 @@
 package com.airbnb.epoxy;
 
+import android.os.Handler;
+
 /**
  * This is a wrapper around {@link com.airbnb.epoxy.EpoxyController} to simplify how data is
  * accessed. Use this if the data required to build your models is represented by four objects.
@@ -22,6 +24,14 @@ public abstract class Typed4EpoxyController<T, U, V, W> extends EpoxyController
   private W data4;
   private boolean insideSetData;
 
+  public Typed4EpoxyController() {
+  }
+
+  /** @see EpoxyController#EpoxyController(Handler) */
+  public Typed4EpoxyController(Handler modelBuildingHandler) {
+    super(modelBuildingHandler);
+  }
+
   /**
    * Call this with the latest data when you want models to be rebuilt. The data will be passed on
    * to {@link #buildModels(Object, Object, Object, Object)}
@@ -1,5 +1,6 @@
 package com.airbnb.epoxy;
 
+import android.os.Handler;
 import android.support.annotation.Nullable;
 
 /**
@@ -20,6 +21,14 @@ public abstract class TypedEpoxyController<T> extends EpoxyController {
   private T currentData;
   private boolean insideSetData;
 
+  public TypedEpoxyController() {
+  }
+
+  /** @see EpoxyController#EpoxyController(Handler) */
+  public TypedEpoxyController(Handler modelBuildingHandler) {
+    super(modelBuildingHandler);
+  }
+
   public final void setData(T data) {
     currentData = data;
     insideSetData = true;
@@ -137,6 +137,18 @@ class UpdateOpHelper {
     moves.add(op);
   }
 
+  /** Shift the positions of all operations by the given amount. */
+  void offsetPositions(int offset) {
+    for (UpdateOp op : opList) {
+      op.positionStart += offset;
+
+      if (op.type == MOVE) {
+        // The target position of a move is stored as the item count
+        op.itemCount += offset;
+      }
+    }
+  }
+
   int getNumRemovals() {
     return numRemovals;
   }
@@ -4,6 +4,7 @@ package com.airbnb.epoxy;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.v4.os.ParcelableCompat;
+import android.support.annotation.Nullable;
 import android.support.v4.os.ParcelableCompatCreatorCallbacks;
 import android.support.v4.util.LongSparseArray;
 import android.util.SparseArray;
@@ -12,7 +13,12 @@ import android.view.View;
 import com.airbnb.epoxy.ViewHolderState.ViewState;
 import com.airbnb.viewmodeladapter.R;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Helper for {@link EpoxyAdapter} to store the state of Views in the adapter. This is useful for
@@ -29,9 +35,39 @@ import java.util.Collection;
  * <p/>
  * This class relies on the adapter having stable ids, as the state of a view is mapped to the id of
  * the {@link EpoxyModel}.
+ * <p/>
+ * The saved states are bounded both in count and in their total parceled size, so that memory use
+ * and the size of the saved instance state stay flat however far the user scrolls. When a limit is
+ * exceeded the least recently saved or restored states are evicted first. The count is enforced as
+ * states are saved, while parceling states to measure their size is deferred until the states are
+ * saved to the instance state, so recycling a view doesn't parcel its state.
+ * <p/>
+ * The states can also be saved to a file with {@link #writeToFile(File, int)}, which keeps the
+ * saved instance state small. After they are restored from the file each state is only read when
+ * its view is bound.
  */
 @SuppressWarnings("WeakerAccess")
 class ViewHolderState extends LongSparseArray<ViewState> implements Parcelable {
+  static final int DEFAULT_MAX_STATE_COUNT = 100;
+  /**
+   * The whole saved instance state of an activity has to fit in a binder transaction of about 1MB,
+   * so view states only get a part of it by default.
+   */
+  static final int DEFAULT_MAX_STATE_BYTES = 100 * 1024;
+
+  private int maxStateCount = DEFAULT_MAX_STATE_COUNT;
+  private int maxStateBytes = DEFAULT_MAX_STATE_BYTES;
+  /** The sum of the parceled sizes of the states whose size is known. */
+  private int totalBytes;
+  /**
+   * The same states as this array, ordered by when they were last saved or restored, least recently
+   * used first. Putting a state moves it to the end, so the state to evict is always the first.
+   */
+  private final LinkedHashMap<Long, ViewState> statesInUseOrder =
+      new LinkedHashMap<>(16, 0.75f, true);
+  /** A file that states which haven't been restored yet are read from, if any. */
+  @Nullable private ViewStateFile stateFile;
+
   public ViewHolderState() {
   }
 
@@ -39,6 +75,181 @@ class ViewHolderState extends LongSparseArray<ViewState> implements Parcelable {
     super(size);
   }
 
+  /**
+   * Set the limits on the saved states, evicting the least recently used states if they are
+   * exceeded.
+   *
+   * @param maxStateCount The maximum number of states, or 0 for no limit.
+   * @param maxStateBytes The maximum total parceled size of the states, or 0 for no limit.
+   */
+  void setLimits(int maxStateCount, int maxStateBytes) {
+    if (maxStateCount < 0) {
+      throw new IllegalArgumentException("State count cannot be negative: " + maxStateCount);
+    }
+    if (maxStateBytes < 0) {
+      throw new IllegalArgumentException("State size cannot be negative: " + maxStateBytes);
+    }
+
+    this.maxStateCount = maxStateCount;
+    this.maxStateBytes = maxStateBytes;
+    trimToLimits();
+  }
+
+  /** Use the same limits as the given state. */
+  void copyLimitsFrom(ViewHolderState other) {
+    setLimits(other.maxStateCount, other.maxStateBytes);
+  }
+
+  /** The total parceled size of the saved states. */
+  int getTotalBytes() {
+    measureStates();
+    return totalBytes;
+  }
+
+  /**
+   * Remove the states of models that aren't in the given ids, which are the ids of the current
+   * models. States that were restored from a saved instance state are kept until they are saved
+   * again, since their models may not have been added yet.
+   */
+  void removeStatesNotIn(ModelIdIndex currentIds) {
+    for (int i = size() - 1; i >= 0; i--) {
+      ViewState state = valueAt(i);
+      if (!state.restoredFromSavedInstanceState
+          && currentIds.get(keyAt(i)) == ModelIdIndex.NO_POSITION) {
+        removeState(keyAt(i), state);
+        removeAt(i);
+      }
+    }
+  }
+
+  /**
+   * Store a state that was just saved, and evict other states if there are too many. Its size is
+   * only measured once the size limit is enforced.
+   */
+  void putState(long id, ViewState state) {
+    ViewState previousState = get(id);
+    if (previousState != null && previousState.sizeInBytes != ViewState.UNKNOWN_SIZE) {
+      totalBytes -= previousState.sizeInBytes;
+    }
+
+    state.sizeInBytes = ViewState.UNKNOWN_SIZE;
+    state.restoredFromSavedInstanceState = false;
+    put(id, state);
+    statesInUseOrder.put(id, state);
+
+    trimToCount();
+  }
+
+  /**
+   * Read states from the given file when they are restored, instead of all at once. The file is
+   * used until the states are written to a file again, or until reading it fails.
+   */
+  void setStateFile(ViewStateFile stateFile) {
+    this.stateFile = stateFile;
+  }
+
+  /**
+   * Write all states to the given file, including states of the current state file that haven't
+   * been read yet, so they aren't lost if the states are saved again before their views are bound.
+   *
+   * @param appVersion The version of the app, which the file is stamped with.
+   * @return A handle that can be put in the saved instance state to read the states back.
+   */
+  ViewStateFile.Handle writeToFile(File file, int appVersion) throws IOException {
+    if (stateFile != null) {
+      LongSparseArray<ViewState> unreadStates = new LongSparseArray<>();
+      try {
+        stateFile.readAll(unreadStates);
+      } finally {
+        stateFile = null;
+      }
+
+      // The unread states are older than any state that was used since they were saved, so they
+      // go first in the use order
+      Map<Long, ViewState> usedStates = new LinkedHashMap<>(statesInUseOrder);
+      statesInUseOrder.clear();
+      for (int i = 0; i < unreadStates.size(); i++) {
+        if (get(unreadStates.keyAt(i)) == null) {
+          addRestoredState(unreadStates.keyAt(i), unreadStates.valueAt(i));
+        }
+      }
+      statesInUseOrder.putAll(usedStates);
+    }
+
+    trimToLimits();
+    return ViewStateFile.write(file, this, appVersion);
+  }
+
+  /** Add a state with a known size, as the most recently used state. */
+  private void addRestoredState(long id, ViewState state) {
+    state.restoredFromSavedInstanceState = true;
+    totalBytes += state.sizeInBytes;
+    put(id, state);
+    statesInUseOrder.put(id, state);
+  }
+
+  /**
+   * Evict the least recently used states until both limits are met. This measures the size of
+   * every state that was saved since the last time, so it is only done when the states are saved
+   * to the instance state, or when the limits change.
+   */
+  void trimToLimits() {
+    trimToCount();
+    if (maxStateBytes == 0) {
+      return;
+    }
+
+    measureStates();
+    while (totalBytes > maxStateBytes) {
+      removeLeastRecentlyUsed();
+    }
+  }
+
+  private void trimToCount() {
+    while (maxStateCount > 0 && size() > maxStateCount) {
+      removeLeastRecentlyUsed();
+    }
+  }
+
+  private void measureStates() {
+    for (int i = 0; i < size(); i++) {
+      ViewState state = valueAt(i);
+      if (state.sizeInBytes == ViewState.UNKNOWN_SIZE) {
+        state.sizeInBytes = parceledSize(state);
+        totalBytes += state.sizeInBytes;
+      }
+    }
+  }
+
+  private void removeLeastRecentlyUsed() {
+    Iterator<Map.Entry<Long, ViewState>> iterator = statesInUseOrder.entrySet().iterator();
+    Map.Entry<Long, ViewState> oldest = iterator.next();
+    iterator.remove();
+
+    if (oldest.getValue().sizeInBytes != ViewState.UNKNOWN_SIZE) {
+      totalBytes -= oldest.getValue().sizeInBytes;
+    }
+    remove(oldest.getKey());
+  }
+
+  /** Remove a state from the use order and the total size, before removing it from the array. */
+  private void removeState(long id, ViewState state) {
+    statesInUseOrder.remove(id);
+    if (state.sizeInBytes != ViewState.UNKNOWN_SIZE) {
+      totalBytes -= state.sizeInBytes;
+    }
+  }
+
+  static int parceledSize(ViewState state) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      state.writeToParcel(parcel, 0);
+      return parcel.dataSize();
+    } finally {
+      parcel.recycle();
+    }
+  }
+
   @Override
   public int describeContents() {
     return 0;
@@ -66,8 +277,10 @@ class ViewHolderState extends LongSparseArray<ViewState> implements Parcelable {
 
       for (int i = 0; i < size; i++) {
         long key = source.readLong();
+        int start = source.dataPosition();
         ViewState value = source.readParcelable(ViewState.class.getClassLoader());
-        state.put(key, value);
+        value.sizeInBytes = source.dataPosition() - start;
+        state.addRestoredState(key, value);
       }
 
       return state;
@@ -99,29 +312,61 @@ class ViewHolderState extends LongSparseArray<ViewState> implements Parcelable {
     }
 
     state.save(holder.itemView);
-    put(holder.getItemId(), state);
+    putState(holder.getItemId(), state);
   }
 
   /**
    * If a state was previously saved for this view holder via {@link #save} it will be restored
    * here.
+   *
+   * @throws IOException If the state file couldn't be read. The state file isn't used anymore
+   *                     afterwards.
    */
-  public void restore(EpoxyViewHolder holder) {
+  public void restore(EpoxyViewHolder holder) throws IOException {
     if (!holder.getModel().shouldSaveViewState()) {
       return;
     }
 
-    ViewState state = get(holder.getItemId());
+    ViewState state = getState(holder.getItemId());
     if (state != null) {
+      statesInUseOrder.put(holder.getItemId(), state);
       state.restore(holder.itemView);
     }
   }
 
+  /** The state for the given id, reading it from the state file if it isn't in memory yet. */
+  @Nullable
+  ViewState getState(long id) throws IOException {
+    ViewState state = get(id);
+    if (state != null || stateFile == null) {
+      return state;
+    }
+
+    try {
+      state = stateFile.read(id);
+    } catch (IOException e) {
+      stateFile = null;
+      throw e;
+    }
+
+    if (state != null) {
+      addRestoredState(id, state);
+      trimToCount();
+    }
+    return state;
+  }
+
   /**
    * A wrapper around a sparse array as a helper to save the state of a view. This also adds
    * parcelable support.
    */
   public static class ViewState extends SparseArray<Parcelable> implements Parcelable {
+    static final int UNKNOWN_SIZE = -1;
+
+    /** The parceled size of this state, or {@link #UNKNOWN_SIZE} if it wasn't measured yet. */
+    int sizeInBytes = UNKNOWN_SIZE;
+    /** True if this state was read from a saved instance state and hasn't been saved since. */
+    boolean restoredFromSavedInstanceState;
 
     public ViewState() {
     }
@@ -161,6 +406,14 @@ class ViewHolderState extends LongSparseArray<ViewState> implements Parcelable {
       }
     }
 
+    static ViewState readFromParcel(Parcel source, ClassLoader loader) {
+      int size = source.readInt();
+      int[] keys = new int[size];
+      source.readIntArray(keys);
+      Parcelable[] values = source.readParcelableArray(loader);
+      return new ViewState(size, keys, values);
+    }
+
     @Override
     public int describeContents() {
       return 0;
@@ -184,11 +437,7 @@ class ViewHolderState extends LongSparseArray<ViewState> implements Parcelable {
         ParcelableCompat.newCreator(new ParcelableCompatCreatorCallbacks<ViewState>() {
           @Override
           public ViewState createFromParcel(Parcel source, ClassLoader loader) {
-            int size = source.readInt();
-            int[] keys = new int[size];
-            source.readIntArray(keys);
-            Parcelable[] values = source.readParcelableArray(loader);
-            return new ViewState(size, keys, values);
+            return readFromParcel(source, loader);
           }
 
           @Override
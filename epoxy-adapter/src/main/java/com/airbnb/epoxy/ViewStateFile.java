@@ -0,0 +1,274 @@
+package com.airbnb.epoxy;
+
+import android.os.Build;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.Nullable;
+import android.support.v4.util.LongSparseArray;
+
+import com.airbnb.epoxy.ViewHolderState.ViewState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Stores saved view states in a file, so that the saved instance state only needs a small {@link
+ * Handle} to the file instead of all the states. States are read back one at a time, when the view
+ * of their model is bound.
+ * <p>
+ * The file starts with a header of the number of states and the id and length of each state, in
+ * ascending id order, followed by the marshalled states in the same order. A random token is also
+ * written to the header and the handle, so a file that was overwritten since the handle was created
+ * isn't mistaken for the states of the handle.
+ * <p>
+ * The header is also stamped with the version of the file format, the SDK version and the app
+ * version. Framework and app classes may parcel their state differently in another version, so a
+ * file written by another version is dropped instead of unmarshalling its states.
+ */
+class ViewStateFile {
+  private static final int MAGIC = 0x45505653;
+  /** Increment when the layout of the file changes. */
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 4;
+  private static final int ENTRY_SIZE = 8 + 4;
+  private static final Random TOKEN_RANDOM = new Random();
+
+  private final File file;
+  private final long token;
+  private final int appVersion;
+  /** The ids, file offsets and lengths of the states. Read from the header on first use. */
+  private long[] ids;
+  private long[] offsets;
+  /** The length of each state, or -1 once the state has been read. */
+  private int[] lengths;
+  private int unreadCount;
+
+  /**
+   * @param appVersion The version of the app that is reading the file. States are only read if the
+   *                   file was written by the same version.
+   */
+  ViewStateFile(Handle handle, int appVersion) {
+    file = new File(handle.path);
+    token = handle.token;
+    this.appVersion = appVersion;
+  }
+
+  /**
+   * Write the given states to the file, replacing what it had before.
+   *
+   * @param appVersion The version of the app that is writing the file.
+   * @return A handle that can be put in the saved instance state to read the states back.
+   */
+  static Handle write(File file, LongSparseArray<ViewState> states, int appVersion)
+      throws IOException {
+    int count = states.size();
+    byte[][] marshalledStates = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      marshalledStates[i] = marshall(states.valueAt(i));
+    }
+
+    long token = TOKEN_RANDOM.nextLong();
+    // Written to a temporary file first so the previous file stays intact if writing fails
+    File tempFile = new File(file.getPath() + ".tmp");
+    boolean written = false;
+    try {
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+      try {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(Build.VERSION.SDK_INT);
+        out.writeInt(appVersion);
+        out.writeLong(token);
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+          out.writeLong(states.keyAt(i));
+          out.writeInt(marshalledStates[i].length);
+        }
+        for (byte[] marshalledState : marshalledStates) {
+          out.write(marshalledState);
+        }
+      } finally {
+        out.close();
+      }
+      written = true;
+    } finally {
+      if (!written) {
+        // Don't leave a partial file behind, it may be large
+        tempFile.delete();
+      }
+    }
+
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      throw new IOException("Unable to replace " + file);
+    }
+
+    return new Handle(file.getPath(), token);
+  }
+
+  /**
+   * Read the state for the given id, if the file has one that hasn't been read already. Each state
+   * is only read once, since it is kept in memory afterwards.
+   */
+  @Nullable
+  ViewState read(long id) throws IOException {
+    readHeaderIfNeeded();
+    int index = Arrays.binarySearch(ids, id);
+    if (index < 0 || lengths[index] < 0) {
+      return null;
+    }
+
+    RandomAccessFile in = new RandomAccessFile(file, "r");
+    try {
+      return readAt(in, index);
+    } finally {
+      in.close();
+    }
+  }
+
+  /** Read all states that haven't been read yet into the given array. */
+  void readAll(LongSparseArray<ViewState> outStates) throws IOException {
+    readHeaderIfNeeded();
+    if (unreadCount == 0) {
+      return;
+    }
+
+    RandomAccessFile in = new RandomAccessFile(file, "r");
+    try {
+      for (int i = 0; i < ids.length; i++) {
+        if (lengths[i] >= 0) {
+          outStates.put(ids[i], readAt(in, i));
+        }
+      }
+    } finally {
+      in.close();
+    }
+  }
+
+  private ViewState readAt(RandomAccessFile in, int index) throws IOException {
+    byte[] bytes = new byte[lengths[index]];
+    in.seek(offsets[index]);
+    in.readFully(bytes);
+
+    lengths[index] = -1;
+    unreadCount--;
+    try {
+      return unmarshall(bytes);
+    } catch (RuntimeException e) {
+      // A corrupt state fails to unmarshall with an unchecked exception, such as a
+      // BadParcelableException. It is reported like any other failure to read the file.
+      throw new IOException("Unable to unmarshall view state from " + file, e);
+    }
+  }
+
+  private void readHeaderIfNeeded() throws IOException {
+    if (ids != null) {
+      return;
+    }
+
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a view state file: " + file);
+      }
+      if (in.readInt() != FORMAT_VERSION || in.readInt() != Build.VERSION.SDK_INT
+          || in.readInt() != appVersion) {
+        throw new IOException("View state file was written by another version: " + file);
+      }
+      if (in.readLong() != token) {
+        throw new IOException("View state file was changed since it was saved: " + file);
+      }
+
+      int count = in.readInt();
+      if (count < 0) {
+        throw new IOException("View state file is corrupt: " + file);
+      }
+      long[] ids = new long[count];
+      long[] offsets = new long[count];
+      int[] lengths = new int[count];
+      long offset = HEADER_SIZE + (long) count * ENTRY_SIZE;
+      for (int i = 0; i < count; i++) {
+        ids[i] = in.readLong();
+        lengths[i] = in.readInt();
+        if (lengths[i] < 0) {
+          throw new IOException("View state file is corrupt: " + file);
+        }
+        offsets[i] = offset;
+        offset += lengths[i];
+      }
+
+      this.ids = ids;
+      this.offsets = offsets;
+      this.lengths = lengths;
+      unreadCount = count;
+    } finally {
+      in.close();
+    }
+  }
+
+  private static byte[] marshall(ViewState state) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      state.writeToParcel(parcel, 0);
+      return parcel.marshall();
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  private static ViewState unmarshall(byte[] bytes) {
+    Parcel parcel = Parcel.obtain();
+    try {
+      parcel.unmarshall(bytes, 0, bytes.length);
+      parcel.setDataPosition(0);
+      ViewState state = ViewState.readFromParcel(parcel, ViewState.class.getClassLoader());
+      state.sizeInBytes = bytes.length;
+      return state;
+    } finally {
+      parcel.recycle();
+    }
+  }
+
+  /** Identifies a written view state file in the saved instance state. */
+  static class Handle implements Parcelable {
+    final String path;
+    final long token;
+
+    Handle(String path, long token) {
+      this.path = path;
+      this.token = token;
+    }
+
+    @Override
+    public int describeContents() {
+      return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+      dest.writeString(path);
+      dest.writeLong(token);
+    }
+
+    public static final Creator<Handle> CREATOR = new Creator<Handle>() {
+
+      public Handle[] newArray(int size) {
+        return new Handle[size];
+      }
+
+      public Handle createFromParcel(Parcel source) {
+        return new Handle(source.readString(), source.readLong());
+      }
+    };
+  }
+}
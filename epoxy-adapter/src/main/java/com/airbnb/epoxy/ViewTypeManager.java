@@ -1,17 +1,51 @@
 package com.airbnb.epoxy;
 
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
+import android.support.v7.widget.RecyclerView;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class ViewTypeManager {
-  private static Map<Class, Integer> viewTypeMap;
+  /**
+   * Generated view types for model classes. Models may be built on several threads at once, so
+   * this is a concurrent map, which doesn't lock on lookups of view types that already exist.
+   */
+  private static final ConcurrentMap<Class, Integer> VIEW_TYPE_MAP = new ConcurrentHashMap<>();
+  /** The next generated view type. These are negative so they don't clash with layout ids. */
+  private static final AtomicInteger NEXT_VIEW_TYPE = new AtomicInteger(-1);
+  /**
+   * View types generated by the annotation processor are at most this value. They are derived from
+   * the generated class name, and each module is processed on its own, so models from different
+   * modules may get the same one.
+   */
+  private static final int MAX_PROCESSOR_VIEW_TYPE = Integer.MIN_VALUE | 0x3FFFFFFF;
+  /**
+   * The model class that each view type generated by the annotation processor was first used for,
+   * so that two model classes sharing one fail right away instead of binding each other's views.
+   */
+  private static final ConcurrentMap<Integer, Class> PROCESSOR_VIEW_TYPE_MAP =
+      new ConcurrentHashMap<>();
+  /**
+   * Model classes that have had their view type from the annotation processor validated. View
+   * types are looked up constantly, so each class is only validated the first time.
+   */
+  private static final Set<Class> VALIDATED_MODEL_CLASSES =
+      Collections.newSetFromMap(new ConcurrentHashMap<Class, Boolean>());
   /**
    * The last model that had its view type looked up. This is stored so in most cases we can quickly
    * look up what view type belongs to which model.
    */
-  private EpoxyModel<?> lastModelForViewTypeLookup;
+  @Nullable private EpoxyModel<?> lastModelForViewTypeLookup;
+  /**
+   * The position of the last item that had its view type looked up, for adapters that know the
+   * view type without the model. The model is only looked up if a view needs to be created.
+   */
+  private int lastPositionForViewTypeLookup = RecyclerView.NO_POSITION;
 
   /**
    * The type map is static so that models of the same class share the same views across different
@@ -21,39 +55,76 @@ class ViewTypeManager {
    */
   @VisibleForTesting
   void resetMapForTesting() {
-    if (viewTypeMap != null) {
-      viewTypeMap.clear();
-    }
+    VIEW_TYPE_MAP.clear();
+    NEXT_VIEW_TYPE.set(-1);
+    PROCESSOR_VIEW_TYPE_MAP.clear();
+    VALIDATED_MODEL_CLASSES.clear();
   }
 
   int getViewType(EpoxyModel<?> model) {
     lastModelForViewTypeLookup = model;
+    lastPositionForViewTypeLookup = RecyclerView.NO_POSITION;
     return getViewTypeInternal(model);
   }
 
-  private static int getViewTypeInternal(EpoxyModel<?> model) {
+  /**
+   * Record that the view type of the item at this position was looked up, for adapters that know
+   * the view type without calling {@link #getViewType(EpoxyModel)}. This is needed for {@link
+   * #getModelForViewType(BaseEpoxyAdapter, int)} to find the model, which it then gets from the
+   * adapter.
+   */
+  void setLastPositionForViewTypeLookup(int position) {
+    lastModelForViewTypeLookup = null;
+    lastPositionForViewTypeLookup = position;
+  }
+
+  /** The view type of the model. This is safe to call from any thread. */
+  static int getViewTypeInternal(EpoxyModel<?> model) {
     int defaultViewType = model.getViewType();
     if (defaultViewType != 0) {
+      if (defaultViewType <= MAX_PROCESSOR_VIEW_TYPE
+          && !VALIDATED_MODEL_CLASSES.contains(model.getClass())) {
+        validateProcessorViewType(model.getClass(), defaultViewType);
+      }
       return defaultViewType;
     }
 
     // If a model does not specify a view type then we generate a value to use for models of that
     // class.
     Class modelClass = model.getClass();
-    if (viewTypeMap == null) {
-      viewTypeMap = new HashMap<>();
-    }
-
-    Integer viewType = viewTypeMap.get(modelClass);
+    Integer viewType = VIEW_TYPE_MAP.get(modelClass);
 
     if (viewType == null) {
-      viewType = -viewTypeMap.size() - 1;
-      viewTypeMap.put(modelClass, viewType);
+      // If another thread adds a view type for the class first, that one is used and the new value
+      // is skipped
+      Integer newViewType = NEXT_VIEW_TYPE.getAndDecrement();
+      viewType = VIEW_TYPE_MAP.putIfAbsent(modelClass, newViewType);
+      if (viewType == null) {
+        viewType = newViewType;
+      }
     }
 
     return viewType;
   }
 
+  private static void validateProcessorViewType(Class modelClass, int viewType) {
+    Class classWithViewType = PROCESSOR_VIEW_TYPE_MAP.get(viewType);
+    if (classWithViewType == null) {
+      classWithViewType = PROCESSOR_VIEW_TYPE_MAP.putIfAbsent(viewType, modelClass);
+    }
+
+    if (classWithViewType != null
+        && !classWithViewType.isAssignableFrom(modelClass)
+        && !modelClass.isAssignableFrom(classWithViewType)) {
+      throw new IllegalStateException("Models " + classWithViewType.getName() + " and "
+          + modelClass.getName() + " were generated with the same view type " + viewType
+          + ", which can happen for models in different modules. Implement getViewType in one "
+          + "of them to give it a different view type.");
+    }
+
+    VALIDATED_MODEL_CLASSES.add(modelClass);
+  }
+
   /**
    * Find the model that has the given view type so we can create a view for that model. In most
    * cases this value is a layout resource and we could simply inflate it, but to support {@link
@@ -70,20 +141,25 @@ class ViewTypeManager {
    * shouldn't be needed, but is a guard against recyclerview behavior changing.
    */
   EpoxyModel<?> getModelForViewType(BaseEpoxyAdapter adapter, int viewType) {
-    if (lastModelForViewTypeLookup != null
-        && getViewTypeInternal(lastModelForViewTypeLookup) == viewType) {
+    EpoxyModel<?> lastModel = lastModelForViewTypeLookup;
+    if (lastModel == null
+        && lastPositionForViewTypeLookup != RecyclerView.NO_POSITION
+        && lastPositionForViewTypeLookup < adapter.getItemCount()) {
+      lastModel = adapter.getModelForPosition(lastPositionForViewTypeLookup);
+    }
+
+    if (lastModel != null && getViewTypeInternal(lastModel) == viewType) {
       // We expect this to be a hit 100% of the time
-      return lastModelForViewTypeLookup;
+      return lastModel;
     }
 
     adapter.onExceptionSwallowed(
         new IllegalStateException("Last model did not match expected view type"));
 
     // To be extra safe in case RecyclerView implementation details change...
-    for (EpoxyModel<?> model : adapter.getCurrentModels()) {
-      if (model.getViewType() == viewType) {
-        return model;
-      }
+    EpoxyModel<?> model = adapter.findModelWithViewType(viewType);
+    if (model != null) {
+      return model;
     }
 
     // Check for the hidden model.
@@ -0,0 +1,257 @@
+package com.airbnb.epoxy;
+
+import android.os.Handler;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.RecyclerView.LayoutManager;
+import android.support.v7.widget.RecyclerView.OnScrollListener;
+
+import com.airbnb.epoxy.EpoxyControllerAdapter.WindowedItemSource;
+
+import java.util.List;
+
+/**
+ * An {@link EpoxyController} for very large data sets, which only builds models for the items
+ * around the visible part of the RecyclerView. The adapter takes its item count, and the ids of
+ * items outside of the window of built items, from the data set, and shows those items with
+ * placeholder models that are created as they are needed and not kept.
+ * <p>
+ * The window follows the scroll position of the RecyclerView, as long as it uses a {@link
+ * LinearLayoutManager} or a subclass of it. Building models, setting them on the adapter and the
+ * memory used for them all depend on the size of the window instead of the data set. When the
+ * window moves only the items entering and leaving it are notified as changed.
+ * <p>
+ * Call {@link #requestModelBuild()} on the main thread whenever the data changes, like you would
+ * notify a normal RecyclerView adapter. Items outside of the window can't be diffed, so all items
+ * are then notified as changed, and changes to the data are not animated. Ids of items outside of
+ * the window are read on the main thread when RecyclerView asks for them, so the data must be
+ * safe to read there even if models are built on another thread.
+ * <p>
+ * {@link Interceptor}s only see the models of the window, and must not add or remove models.
+ */
+public abstract class WindowedEpoxyController extends EpoxyController {
+  private static final int DEFAULT_WINDOW_BUFFER = 20;
+
+  private int windowBuffer = DEFAULT_WINDOW_BUFFER;
+  /**
+   * The range of items, end exclusive, that should have models. Set on the main thread as the
+   * visible items change and read when models are built.
+   */
+  private volatile int windowStart;
+  private volatile int windowEnd = DEFAULT_WINDOW_BUFFER * 2;
+  /** Until the visible items are known the window starts at the first item. */
+  private boolean hasVisibleItems;
+  /**
+   * Changed each time a build is requested for changed data, as opposed to a move of the window.
+   * Builds record the version they saw, so a build that moved the window but replaced a build for
+   * changed data still notifies all items.
+   */
+  private volatile int dataVersion;
+  /** True while the window requests a build, which isn't for changed data. */
+  private boolean requestingWindowBuild;
+  /** The data version of the models that were last set on the adapter. Main thread only. */
+  private int appliedDataVersion;
+  /** The window of the latest build. Set on the model building thread. */
+  private volatile BuiltWindow builtWindow;
+
+  public WindowedEpoxyController() {
+    getAdapter().setWindowedItemSource(itemSource);
+  }
+
+  /** @see EpoxyController#EpoxyController(Handler) */
+  public WindowedEpoxyController(Handler modelBuildingHandler) {
+    super(modelBuildingHandler);
+    getAdapter().setWindowedItemSource(itemSource);
+  }
+
+  /** The total number of items in the data set. */
+  protected abstract int getItemCount();
+
+  /** The stable id of the item at this position, which is used as the id of its model. */
+  protected abstract long getItemId(int position);
+
+  /**
+   * Create the model for the item at this position. It doesn't need to be added to the controller,
+   * and its id is set to {@link #getItemId(int)} if it doesn't have that id already.
+   */
+  protected abstract EpoxyModel<?> buildItemModel(int position);
+
+  /**
+   * Create a placeholder model for an item outside of the window. This is called on the main
+   * thread when RecyclerView shows an item that is outside of the window, such as when scrolling
+   * faster than the window is built. Placeholders aren't kept, so they should be cheap to create,
+   * and shouldn't depend on the item's data. They should generally be about the size of the item's
+   * real model, so that scroll positions stay accurate.
+   */
+  protected abstract EpoxyModel<?> buildPlaceholderModel(int position);
+
+  /**
+   * Set how many items on each side of the visible items have models built for them. A larger
+   * buffer moves the window less often, and makes it less likely for placeholders to be seen while
+   * scrolling fast, at the cost of building more models each time it moves.
+   */
+  public void setWindowBuffer(int itemCount) {
+    if (itemCount < 0) {
+      throw new IllegalArgumentException("Window buffer cannot be negative: " + itemCount);
+    }
+
+    windowBuffer = itemCount;
+    if (!hasVisibleItems) {
+      windowEnd = itemCount * 2;
+    }
+  }
+
+  /**
+   * Move the window of built items to the given visible items, if they are getting close to the
+   * edge of the current window. This is called automatically as the RecyclerView scrolls if it uses
+   * a {@link LinearLayoutManager}, and otherwise may be called with the visible positions of your
+   * layout manager. Must be called on the main thread.
+   */
+  public void setVisibleItems(int firstVisiblePosition, int lastVisiblePosition) {
+    // The window is only moved once the visible items are within half a buffer of its edges, so it
+    // isn't rebuilt for every item that is scrolled.
+    int margin = windowBuffer / 2;
+    int lastPosition = getAdapter().getItemCount() - 1;
+    if (hasVisibleItems
+        && Math.max(firstVisiblePosition - margin, 0) >= windowStart
+        && Math.min(lastVisiblePosition + margin, lastPosition) < windowEnd) {
+      return;
+    }
+
+    hasVisibleItems = true;
+    windowStart = Math.max(firstVisiblePosition - windowBuffer, 0);
+    windowEnd = lastVisiblePosition + 1 + windowBuffer;
+
+    requestingWindowBuild = true;
+    try {
+      requestModelBuild();
+    } finally {
+      requestingWindowBuild = false;
+    }
+  }
+
+  @Override
+  public void requestModelBuild() {
+    onBuildRequested();
+    super.requestModelBuild();
+  }
+
+  @Override
+  public void requestDelayedModelBuild(int delayMs) {
+    onBuildRequested();
+    super.requestDelayedModelBuild(delayMs);
+  }
+
+  private void onBuildRequested() {
+    if (!requestingWindowBuild) {
+      dataVersion++;
+    }
+  }
+
+  @Override
+  protected final void buildModels() {
+    int version = dataVersion;
+    int itemCount = getItemCount();
+    int start = Math.min(windowStart, itemCount);
+    int end = Math.max(Math.min(windowEnd, itemCount), start);
+
+    for (int i = start; i < end; i++) {
+      long id = getItemId(i);
+      EpoxyModel<?> model = buildItemModel(i);
+      if (model.id() != id) {
+        model.id(id);
+      }
+      add(model);
+    }
+
+    builtWindow = new BuiltWindow(getModelsBeingBuilt(), start, end, itemCount, version);
+  }
+
+  @Override
+  void setModelsOnAdapter(ControllerModelList builtModels,
+      @Nullable ControllerModelList previousModels, int rangeStart, int previousRangeCount) {
+    BuiltWindow window = builtWindow;
+    if (window.models != builtModels) {
+      // A newer build has already started, and will set its own window
+      return;
+    }
+
+    if (builtModels.size() != window.end - window.start) {
+      throw new IllegalStateException("Expected " + (window.end - window.start)
+          + " models for items " + window.start + " to " + window.end + " but " + builtModels.size()
+          + " were built. Interceptors and duplicate filtering must not add or remove models of a "
+          + "WindowedEpoxyController");
+    }
+
+    boolean dataChanged = window.dataVersion != appliedDataVersion;
+    appliedDataVersion = window.dataVersion;
+    getAdapter().setWindowedModels(builtModels, window.start, window.itemCount, dataChanged);
+  }
+
+  @Override
+  void onAttachedToRecyclerViewInternal(RecyclerView recyclerView) {
+    super.onAttachedToRecyclerViewInternal(recyclerView);
+    recyclerView.addOnScrollListener(scrollListener);
+  }
+
+  @Override
+  void onDetachedFromRecyclerViewInternal(RecyclerView recyclerView) {
+    recyclerView.removeOnScrollListener(scrollListener);
+    super.onDetachedFromRecyclerViewInternal(recyclerView);
+  }
+
+  private final OnScrollListener scrollListener = new OnScrollListener() {
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+      LayoutManager layoutManager = recyclerView.getLayoutManager();
+      if (!(layoutManager instanceof LinearLayoutManager)) {
+        return;
+      }
+
+      LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+      int firstVisiblePosition = linearLayoutManager.findFirstVisibleItemPosition();
+      if (firstVisiblePosition == RecyclerView.NO_POSITION) {
+        return;
+      }
+
+      setVisibleItems(firstVisiblePosition, linearLayoutManager.findLastVisibleItemPosition());
+    }
+  };
+
+  private final WindowedItemSource itemSource = new WindowedItemSource() {
+    @Override
+    public long getItemId(int position) {
+      // The adapter's item count is only updated once models are built for changed data
+      return position < getItemCount()
+          ? WindowedEpoxyController.this.getItemId(position) : RecyclerView.NO_ID;
+    }
+
+    @Override
+    public EpoxyModel<?> buildPlaceholderModel(int position) {
+      EpoxyModel<?> model = WindowedEpoxyController.this.buildPlaceholderModel(position);
+      long id = getItemId(position);
+      if (model.id() != id) {
+        model.id(id);
+      }
+      return model;
+    }
+  };
+
+  /** The window of items that models were built for, and the data they were built with. */
+  private static final class BuiltWindow {
+    final List<EpoxyModel<?>> models;
+    final int start;
+    final int end;
+    final int itemCount;
+    final int dataVersion;
+
+    BuiltWindow(List<EpoxyModel<?>> models, int start, int end, int itemCount, int dataVersion) {
+      this.models = models;
+      this.start = start;
+      this.end = end;
+      this.itemCount = itemCount;
+      this.dataVersion = dataVersion;
+    }
+  }
+}
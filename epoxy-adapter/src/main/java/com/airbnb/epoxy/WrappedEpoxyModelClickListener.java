@@ -1,5 +1,6 @@
 package com.airbnb.epoxy;
 
+import android.support.annotation.Nullable;
 import android.view.View;
 import android.view.View.OnClickListener;
 
@@ -13,11 +14,21 @@ public abstract class WrappedEpoxyModelClickListener implements OnClickListener
   // if it is still bound to a view. This also lets us call back to the original hashCode and
   // equals methods
   private final OnModelClickListener originalClickListener;
+  /**
+   * The holder that the model of this listener was last bound to. This isn't part of equals and
+   * hashCode, so binding the model doesn't change its state.
+   */
+  @Nullable private EpoxyViewHolder viewHolder;
 
   public WrappedEpoxyModelClickListener(OnModelClickListener originalClickListener) {
     this.originalClickListener = originalClickListener;
   }
 
+  /** Set by {@link EpoxyViewHolder} when the model of this listener is bound to it. */
+  void setViewHolder(EpoxyViewHolder viewHolder) {
+    this.viewHolder = viewHolder;
+  }
+
   @Override
   public void onClick(View v) {
     wrappedOnClick(v, originalClickListener);
@@ -25,6 +36,23 @@ public abstract class WrappedEpoxyModelClickListener implements OnClickListener
 
   protected abstract void wrappedOnClick(View v, OnModelClickListener originalClickListener);
 
+  /**
+   * Call the click listener with the given model, and with the bound object and the current adapter
+   * position of the holder that the model was last bound to. Nothing is called if the model hasn't
+   * been bound.
+   */
+  protected void callModelClickListener(EpoxyModel<?> model, View v,
+      OnModelClickListener originalClickListener) {
+    if (viewHolder == null) {
+      return;
+    }
+
+    // The model's generated click listener setter only accepts a properly typed listener
+    // noinspection unchecked
+    originalClickListener.onClick(model, viewHolder.objectToBind(), v,
+        viewHolder.getAdapterPosition());
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -0,0 +1,28 @@
+package com.airbnb.epoxy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assume.assumeTrue;
+
+/** Measures how much memory the current thread allocates, for tests that check for garbage. */
+class AllocationCounter {
+  private final com.sun.management.ThreadMXBean threadBean;
+  private final long threadId = Thread.currentThread().getId();
+
+  /** Skips the calling test if the JVM can't measure thread allocations. */
+  AllocationCounter() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    threadBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  /** The number of bytes allocated by the current thread while running the given code. */
+  long bytesAllocatedBy(Runnable runnable) {
+    long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+    runnable.run();
+    return threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+  }
+}
@@ -0,0 +1,198 @@
+package com.airbnb.epoxy;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class ConcurrentModelBuildingTest {
+
+  private static final int THREAD_COUNT = 8;
+  private static final int ITERATIONS = 10000;
+
+  @Before
+  public void resetViewTypeMap() {
+    new ViewTypeManager().resetMapForTesting();
+  }
+
+  @Test
+  public void defaultIdsAreUniqueAcrossThreads() throws Exception {
+    List<List<Long>> idsPerThread = runOnAllThreads(new Callable<List<Long>>() {
+      @Override
+      public List<Long> call() {
+        List<Long> ids = new ArrayList<>(ITERATIONS);
+        for (int i = 0; i < ITERATIONS; i++) {
+          ids.add(new TestModel().id());
+        }
+        return ids;
+      }
+    });
+
+    Set<Long> allIds = new HashSet<>();
+    for (List<Long> ids : idsPerThread) {
+      allIds.addAll(ids);
+    }
+
+    assertEquals(THREAD_COUNT * ITERATIONS, allIds.size());
+  }
+
+  @Test
+  public void generatedViewTypesAreConsistentAcrossThreads() throws Exception {
+    final List<EpoxyModel<?>> models = new ArrayList<>();
+    models.add(new ModelA());
+    models.add(new ModelB());
+    models.add(new ModelC());
+    models.add(new ModelD());
+
+    List<int[]> viewTypesPerThread = runOnAllThreads(new Callable<int[]>() {
+      @Override
+      public int[] call() {
+        ViewTypeManager viewTypeManager = new ViewTypeManager();
+        int[] viewTypes = new int[models.size()];
+        for (int i = 0; i < ITERATIONS; i++) {
+          int index = i % models.size();
+          int viewType = viewTypeManager.getViewType(models.get(index));
+          if (viewTypes[index] == 0) {
+            viewTypes[index] = viewType;
+          } else if (viewTypes[index] != viewType) {
+            throw new IllegalStateException("View type changed for " + models.get(index));
+          }
+        }
+        return viewTypes;
+      }
+    });
+
+    int[] expectedViewTypes = viewTypesPerThread.get(0);
+    Set<Integer> distinctViewTypes = new HashSet<>();
+    for (int viewType : expectedViewTypes) {
+      assertTrue(viewType < 0);
+      distinctViewTypes.add(viewType);
+    }
+    assertEquals(models.size(), distinctViewTypes.size());
+
+    for (int[] viewTypes : viewTypesPerThread) {
+      for (int i = 0; i < viewTypes.length; i++) {
+        assertEquals(expectedViewTypes[i], viewTypes[i]);
+      }
+    }
+  }
+
+  @Test
+  public void controllerHelpersAreLookedUpAcrossThreads() throws Exception {
+    final EpoxyController[] controllers = {
+        new ControllerA(),
+        new ControllerB(),
+        new SubclassOfControllerA()
+    };
+
+    List<ControllerHelper> helpers = runOnAllThreads(new Callable<ControllerHelper>() {
+      @Override
+      public ControllerHelper call() {
+        ControllerHelper helper = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+          ControllerHelper nextHelper = ControllerHelperLookup
+              .getHelperForController(controllers[i % controllers.length]);
+          if (helper != null && helper != nextHelper) {
+            throw new IllegalStateException("Different helpers for controllers without helpers");
+          }
+          helper = nextHelper;
+        }
+        return helper;
+      }
+    });
+
+    for (ControllerHelper helper : helpers) {
+      assertSame(helpers.get(0), helper);
+      assertTrue(helper instanceof NoOpControllerHelper);
+    }
+  }
+
+  /**
+   * Run the task on many threads at once, starting them together so that they contend as much as
+   * possible. Any exception thrown by a task fails the test.
+   */
+  private static <T> List<T> runOnAllThreads(final Callable<T> task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    List<Future<T>> futures = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < THREAD_COUNT; i++) {
+        futures.add(executor.submit(new Callable<T>() {
+          @Override
+          public T call() throws Exception {
+            startLatch.await();
+            return task.call();
+          }
+        }));
+      }
+
+      startLatch.countDown();
+
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static class ModelWithGeneratedViewType extends EpoxyModelWithView<View> {
+    @Override
+    protected View buildView(ViewGroup parent) {
+      return new FrameLayout(RuntimeEnvironment.application);
+    }
+  }
+
+  private static class ModelA extends ModelWithGeneratedViewType {
+  }
+
+  private static class ModelB extends ModelWithGeneratedViewType {
+  }
+
+  private static class ModelC extends ModelWithGeneratedViewType {
+  }
+
+  private static class ModelD extends ModelWithGeneratedViewType {
+  }
+
+  private static class ControllerA extends EpoxyController {
+    @Override
+    protected void buildModels() {
+
+    }
+  }
+
+  private static class ControllerB extends EpoxyController {
+    @Override
+    protected void buildModels() {
+
+    }
+  }
+
+  private static class SubclassOfControllerA extends ControllerA {
+  }
+}
@@ -0,0 +1,137 @@
+package com.airbnb.epoxy;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.airbnb.epoxy.ModelTestUtils.addModels;
+import static com.airbnb.epoxy.ModelTestUtils.changeValue;
+import static com.airbnb.epoxy.ModelTestUtils.convertToTestModels;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class DiffOperationBudgetTest {
+
+  private final TestObserver testObserver = new TestObserver();
+  private final TestAdapter adapter = new TestAdapter();
+  private final List<EpoxyModel<?>> models = adapter.models;
+  private List<TestModel> displayedModels = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    adapter.registerAdapterDataObserver(testObserver);
+    addModels(20, models);
+    diff();
+  }
+
+  @Test
+  public void diffUnderBudgetIsNotReplaced() {
+    adapter.setDiffOperationBudget(3);
+
+    models.add(models.remove(0));
+    diff();
+
+    assertEquals(1, testObserver.operationCount);
+    assertEquals(0, countInsertedModels());
+  }
+
+  @Test
+  public void diffOverBudgetReplacesModels() {
+    adapter.setDiffOperationBudget(3);
+
+    Collections.reverse(models);
+    diff();
+
+    // One removal and one insertion for the whole list
+    assertEquals(2, testObserver.operationCount);
+    assertEquals(models.size(), countInsertedModels());
+  }
+
+  @Test
+  public void modelsAtSamePositionAreUpdated() {
+    adapter.setDiffOperationBudget(5);
+
+    // Models 10 and 19 stay in place
+    Collections.reverse(models.subList(0, 10));
+    Collections.reverse(models.subList(11, 19));
+    changeValue(models.get(10));
+    diff();
+
+    // The ranges on either side of model 10 are replaced, and it is updated
+    assertEquals(5, testObserver.operationCount);
+    assertEquals(models.size() - 2, countInsertedModels());
+    assertTrue(testObserver.modelsAfterDiffing.get(10).updated);
+  }
+
+  @Test
+  public void wholeListIsReplacedIfKeptModelsExceedBudget() {
+    adapter.setDiffOperationBudget(3);
+
+    Collections.reverse(models.subList(0, 10));
+    Collections.reverse(models.subList(11, 19));
+    changeValue(models.get(10));
+    diff();
+
+    // The unchanged last model is outside of the changed range, so it is kept
+    assertEquals(2, testObserver.operationCount);
+    assertEquals(models.size() - 1, countInsertedModels());
+  }
+
+  @Test
+  public void sizeChangeOverBudget() {
+    adapter.setDiffOperationBudget(3);
+
+    Collections.reverse(models);
+    models.remove(5);
+    models.remove(10);
+    addModels(1, models, 3);
+    diff();
+
+    assertEquals(2, testObserver.operationCount);
+    assertEquals(models.size(), countInsertedModels());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeBudgetIsNotAllowed() {
+    adapter.setDiffOperationBudget(-1);
+  }
+
+  private void diff() {
+    testObserver.setUpForNextDiff(displayedModels);
+    for (TestModel model : displayedModels) {
+      model.updated = false;
+    }
+    testObserver.operationCount = 0;
+
+    adapter.notifyModelsChanged();
+
+    // Check that the notified operations produce the new list
+    List<TestModel> newModels = convertToTestModels(models);
+    assertEquals(newModels.size(), testObserver.modelsAfterDiffing.size());
+    for (int i = 0; i < newModels.size(); i++) {
+      TestModel model = testObserver.modelsAfterDiffing.get(i);
+      if (model != InsertedModel.INSTANCE) {
+        assertEquals(newModels.get(i).id(), model.id());
+      }
+    }
+
+    displayedModels = newModels;
+  }
+
+  private int countInsertedModels() {
+    int count = 0;
+    for (TestModel model : testObserver.modelsAfterDiffing) {
+      if (model == InsertedModel.INSTANCE) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
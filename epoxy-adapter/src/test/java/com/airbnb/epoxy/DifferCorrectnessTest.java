@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Random;
 
 import static com.airbnb.epoxy.ModelTestUtils.addModels;
+import static com.airbnb.epoxy.ModelTestUtils.changeValue;
 import static com.airbnb.epoxy.ModelTestUtils.changeValues;
 import static com.airbnb.epoxy.ModelTestUtils.convertToTestModels;
 import static com.airbnb.epoxy.ModelTestUtils.remove;
@@ -33,7 +34,7 @@ public class DifferCorrectnessTest {
    */
   private static final boolean SPEED_RUN = false;
   private final TestObserver testObserver = new TestObserver(SHOW_LOGS);
-  private final TestAdapter testAdapter = new TestAdapter();
+  private final TestAdapter testAdapter = new TestAdapter(diffStrategy());
   private final List<EpoxyModel<?>> models = testAdapter.models;
   private static long totalDiffMillis = 0;
   private static long totalDiffOperations = 0;
@@ -58,6 +59,11 @@ public class DifferCorrectnessTest {
     }
   }
 
+  /** Overridden to run these tests with other diff strategies. */
+  DiffStrategy diffStrategy() {
+    return DiffStrategy.DEFAULT;
+  }
+
   @Before
   public void setUp() {
     if (!SPEED_RUN) {
@@ -151,6 +157,33 @@ public class DifferCorrectnessTest {
     diffAndValidateWithOpCount(2);
   }
 
+  @Test
+  public void swapInMiddle() {
+    addModels(100, models);
+    diffAndValidate();
+
+    // Only the models between the swapped ones need to be diffed
+    EpoxyModel<?> firstModel = models.get(40);
+    models.set(40, models.get(60));
+    models.set(60, firstModel);
+
+    diffAndValidateWithOpCount(2);
+  }
+
+  @Test
+  public void changesInMiddleAfterAppend() {
+    addModels(100, models);
+    diffAndValidate();
+
+    addModels(20, models);
+    diffAndValidateWithOpCount(1);
+
+    remove(models, 50, 5);
+    addModels(5, models, 30);
+    changeValue(models.get(70));
+    diffAndValidateWithOpCount(3);
+  }
+
   @Test
   public void moveFrontToEnd() {
     addModels(models);
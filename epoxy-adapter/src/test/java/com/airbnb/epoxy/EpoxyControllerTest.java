@@ -1,16 +1,24 @@
 package com.airbnb.epoxy;
 
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.support.v7.widget.RecyclerView.AdapterDataObserver;
 
 import com.airbnb.epoxy.EpoxyController.Interceptor;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.robolectric.Shadows;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -87,6 +95,33 @@ public class EpoxyControllerTest {
     assertEquals(1, controller.getAdapter().getItemCount());
   }
 
+  @Test
+  public void filterDuplicatesKeepsFirstModelsInOrder() {
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        for (int i = 0; i < 100; i++) {
+          new TestModel()
+              .id(i % 10)
+              .addTo(this);
+        }
+      }
+    };
+
+    controller.setFilterDuplicates(true);
+    controller.requestModelBuild();
+
+    EpoxyControllerAdapter adapter = controller.getAdapter();
+    assertEquals(10, adapter.getItemCount());
+    for (int i = 0; i < 10; i++) {
+      EpoxyModel<?> model = adapter.getModelAtPosition(i);
+      assertEquals(i, model.id());
+      assertSame(model, adapter.getModelById(i));
+      assertEquals(i, adapter.getModelPosition(model));
+    }
+  }
+
   @Test(expected = IllegalStateException.class)
   public void throwOnDuplicatesIfNotFiltering() {
     EpoxyController controller = new EpoxyController() {
@@ -261,4 +296,243 @@ public class EpoxyControllerTest {
 
     assertEquals(3, controller.getAdapter().getItemCount());
   }
-}
\ No newline at end of file
+
+  int modelCountToBuild;
+
+  @Test
+  public void diffOnDiffingHandler() {
+    AdapterDataObserver observer = mock(AdapterDataObserver.class);
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        for (int i = 0; i < modelCountToBuild; i++) {
+          new TestModel(i)
+              .value(i)
+              .addTo(this);
+        }
+      }
+    };
+
+    controller.setDiffingHandler(new Handler());
+    controller.getAdapter().registerAdapterDataObserver(observer);
+
+    modelCountToBuild = 1;
+    controller.requestModelBuild();
+    verify(observer).onItemRangeInserted(0, 1);
+
+    modelCountToBuild = 3;
+    controller.requestModelBuild();
+    verify(observer).onItemRangeInserted(1, 2);
+
+    assertEquals(3, controller.getAdapter().getItemCount());
+    assertEquals(2, controller.getAdapter().getItemId(2));
+    verifyNoMoreInteractions(observer);
+  }
+
+  @Test
+  public void outdatedBackgroundDiffIsDropped() {
+    HandlerThread diffingThread = new HandlerThread("diffing");
+    diffingThread.start();
+    // Diffs are only run when the test allows it, so a newer diff can be requested while an older
+    // one is still pending
+    ShadowLooper diffingLooper = Shadows.shadowOf(diffingThread.getLooper());
+    diffingLooper.pause();
+
+    AdapterDataObserver observer = mock(AdapterDataObserver.class);
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        for (int i = 0; i < modelCountToBuild; i++) {
+          new TestModel(i)
+              .value(i)
+              .addTo(this);
+        }
+      }
+    };
+
+    controller.setDiffingHandler(new Handler(diffingThread.getLooper()));
+    controller.getAdapter().registerAdapterDataObserver(observer);
+
+    modelCountToBuild = 1;
+    controller.requestModelBuild();
+    verify(observer).onItemRangeInserted(0, 1);
+
+    modelCountToBuild = 2;
+    controller.requestModelBuild();
+    modelCountToBuild = 3;
+    controller.requestModelBuild();
+
+    diffingLooper.runOneTask();
+    assertEquals(1, controller.getAdapter().getItemCount());
+    verifyNoMoreInteractions(observer);
+
+    diffingLooper.runOneTask();
+    assertEquals(3, controller.getAdapter().getItemCount());
+    verify(observer).onItemRangeInserted(1, 2);
+    verifyNoMoreInteractions(observer);
+
+    diffingThread.quit();
+  }
+
+  @Test
+  public void buildModelsOnModelBuildingHandler() {
+    AdapterDataObserver observer = mock(AdapterDataObserver.class);
+    EpoxyController controller = new EpoxyController(new Handler()) {
+
+      @Override
+      protected void buildModels() {
+        assertTrue(isBuildingModels());
+        for (int i = 0; i < modelCountToBuild; i++) {
+          new TestModel(i)
+              .value(i)
+              .addTo(this);
+        }
+      }
+    };
+
+    controller.getAdapter().registerAdapterDataObserver(observer);
+
+    modelCountToBuild = 2;
+    controller.requestModelBuild();
+    verify(observer).onItemRangeInserted(0, 2);
+    assertFalse(controller.isBuildingModels());
+
+    assertEquals(2, controller.getAdapter().getItemCount());
+    verifyNoMoreInteractions(observer);
+  }
+
+  @Test
+  public void helperValidatesLastBuiltModelsBeforeAdapterHasThem() throws InterruptedException {
+    HandlerThread buildingThread = new HandlerThread("building");
+    buildingThread.start();
+    ShadowLooper buildingLooper = Shadows.shadowOf(buildingThread.getLooper());
+    buildingLooper.pause();
+
+    final TestModel model = new TestModel(1);
+    final List<RuntimeException> validationFailures = new ArrayList<>();
+    final ControllerHelper<EpoxyController> helper = new ControllerHelper<EpoxyController>() {
+      @Override
+      public void resetAutoModels() {
+
+      }
+    };
+
+    EpoxyController controller = new EpoxyController(new Handler(buildingThread.getLooper())) {
+
+      @Override
+      protected void buildModels() {
+        // Generated helpers do this at the start of each build
+        try {
+          helper.validateModelHashCodesHaveNotChanged(this);
+        } catch (RuntimeException e) {
+          validationFailures.add(e);
+        }
+
+        model.addWithDebugValidation(this);
+        add(model);
+      }
+    };
+
+    // The built models aren't set on the adapter while the main looper is paused, so the second
+    // build can only see the change through the controller's own last built models
+    ShadowLooper.pauseMainLooper();
+    controller.requestModelBuild();
+    runTasksOnOtherThread(buildingLooper);
+
+    model.incrementValue();
+    controller.requestModelBuild();
+    runTasksOnOtherThread(buildingLooper);
+    ShadowLooper.unPauseMainLooper();
+
+    assertEquals(1, validationFailures.size());
+    buildingThread.quit();
+  }
+
+  /** Run the tasks queued on the looper on a new thread, and wait for them to finish. */
+  private static void runTasksOnOtherThread(final ShadowLooper looper)
+      throws InterruptedException {
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        looper.runToEndOfTasks();
+      }
+    });
+    thread.start();
+    thread.join();
+  }
+
+  int buildModelsCount;
+
+  @Test
+  public void frameAlignedModelBuildsAreCoalesced() {
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        buildModelsCount++;
+        new TestModel()
+            .addTo(this);
+      }
+    };
+
+    controller.setFrameAlignedModelBuilding(true);
+    controller.requestModelBuild();
+    assertEquals(1, buildModelsCount);
+
+    ShadowLooper.pauseMainLooper();
+    controller.requestModelBuild();
+    controller.requestModelBuild();
+    controller.requestModelBuild();
+    assertEquals(1, buildModelsCount);
+
+    ShadowLooper.unPauseMainLooper();
+    assertEquals(2, buildModelsCount);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeFrameBudgetIsNotAllowed() {
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+
+      }
+    };
+
+    controller.setModelBuildFrameBudget(-1);
+  }
+
+  int cachedModelDataKey;
+
+  @Test
+  public void cachedModelIsReusedWhileDataKeyIsUnchanged() {
+    AdapterDataObserver observer = mock(AdapterDataObserver.class);
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        EpoxyModel<?> model = getCachedModel(1, cachedModelDataKey);
+        if (model == null) {
+          model = new TestModel(1);
+          cacheModel(model, cachedModelDataKey);
+        }
+        add(model);
+      }
+    };
+
+    controller.getAdapter().registerAdapterDataObserver(observer);
+    controller.requestModelBuild();
+    verify(observer).onItemRangeInserted(0, 1);
+    EpoxyModel<?> firstModel = controller.getAdapter().getModelAtPosition(0);
+
+    controller.requestModelBuild();
+    assertSame(firstModel, controller.getAdapter().getModelAtPosition(0));
+    verifyNoMoreInteractions(observer);
+
+    cachedModelDataKey = 1;
+    controller.requestModelBuild();
+    assertNotSame(firstModel, controller.getAdapter().getModelAtPosition(0));
+  }
+}
@@ -0,0 +1,15 @@
+package com.airbnb.epoxy;
+
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+/** Runs the differ correctness tests with the increasing subsequence diff strategy. */
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class IncreasingSubsequenceDifferCorrectnessTest extends DifferCorrectnessTest {
+
+  @Override
+  DiffStrategy diffStrategy() {
+    return DiffStrategy.INCREASING_SUBSEQUENCE;
+  }
+}
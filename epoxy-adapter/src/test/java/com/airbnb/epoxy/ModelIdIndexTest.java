@@ -0,0 +1,52 @@
+package com.airbnb.epoxy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class ModelIdIndexTest {
+
+  @Test
+  public void putAndGet() {
+    ModelIdIndex index = new ModelIdIndex(2);
+
+    assertEquals(ModelIdIndex.NO_POSITION, index.putIfAbsent(1, 0));
+    assertEquals(ModelIdIndex.NO_POSITION, index.putIfAbsent(-2, 1));
+
+    assertEquals(0, index.get(1));
+    assertEquals(1, index.get(-2));
+    assertEquals(ModelIdIndex.NO_POSITION, index.get(3));
+  }
+
+  @Test
+  public void firstPositionIsKeptForDuplicateIds() {
+    ModelIdIndex index = new ModelIdIndex(2);
+    index.putIfAbsent(1, 0);
+
+    assertEquals(0, index.putIfAbsent(1, 1));
+    assertEquals(0, index.get(1));
+  }
+
+  @Test
+  public void createIndexesAllModels() {
+    List<TestModel> models = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      // Ids that are far apart and share low bits still have to spread across the table
+      models.add(new TestModel(i * 1024L));
+    }
+    models.add(new TestModel(0));
+
+    ModelIdIndex index = ModelIdIndex.create(models);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, index.get(i * 1024L));
+    }
+    assertEquals(ModelIdIndex.NO_POSITION, index.get(1));
+  }
+}
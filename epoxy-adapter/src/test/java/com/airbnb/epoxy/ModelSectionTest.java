@@ -0,0 +1,157 @@
+package com.airbnb.epoxy;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.airbnb.epoxy.ModelTestUtils.convertToTestModels;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class ModelSectionTest {
+
+  private final TestObserver testObserver = new TestObserver();
+  private final TestSection header = new TestSection(100, 1);
+  private final TestSection feed = new TestSection(200, 10);
+  private final TestSection footer = new TestSection(300, 1);
+  private final TestModel firstModel = new TestModel(1);
+  private int controllerBuildCount;
+  private List<TestModel> displayedModels;
+
+  private final EpoxyController controller = new EpoxyController() {
+    @Override
+    protected void buildModels() {
+      controllerBuildCount++;
+      add(firstModel);
+      addSection(header);
+      addSection(feed);
+      addSection(footer);
+    }
+  };
+
+  @Before
+  public void setUp() {
+    controller.requestModelBuild();
+    controller.getAdapter().registerAdapterDataObserver(testObserver);
+    displayedModels = convertToTestModels(controller.getAdapter().getCopyOfModels());
+  }
+
+  @Test
+  public void onlyRequestedSectionIsRebuilt() {
+    feed.models.get(3).incrementValue();
+    feed.models.remove(5);
+    feed.models.add(new TestModel(250));
+    sectionBuild(feed);
+
+    assertEquals(1, controllerBuildCount);
+    assertEquals(1, header.buildCount);
+    assertEquals(2, feed.buildCount);
+    assertEquals(1, footer.buildCount);
+
+    // The changes are offset by the models before the section
+    assertTrue(testObserver.modelsAfterDiffing.get(5).updated);
+    assertFalse(testObserver.modelsAfterDiffing.get(0).updated);
+    assertSame(firstModel, controller.getAdapter().getModelAtPosition(0));
+  }
+
+  @Test
+  public void laterSectionsAreOffsetBySizeChanges() {
+    feed.models.subList(0, 4).clear();
+    sectionBuild(feed);
+
+    footer.models.add(0, new TestModel(350));
+    sectionBuild(footer);
+
+    header.models.add(new TestModel(150));
+    sectionBuild(header);
+
+    assertEquals(1, controllerBuildCount);
+    assertEquals(11, controller.getAdapter().getItemCount());
+  }
+
+  @Test
+  public void fullBuildRebuildsAllSections() {
+    controller.requestModelBuild();
+
+    assertEquals(2, controllerBuildCount);
+    assertEquals(2, header.buildCount);
+    assertEquals(2, feed.buildCount);
+    assertEquals(2, footer.buildCount);
+  }
+
+  @Test
+  public void sectionNotAddedToControllerRequestsFullBuild() {
+    TestSection section = new TestSection(400, 1);
+    controller.requestSectionBuild(section);
+
+    assertEquals(2, controllerBuildCount);
+    assertEquals(0, section.buildCount);
+  }
+
+  @Test
+  public void interceptorsRequestFullBuild() {
+    controller.addInterceptor(new EpoxyController.Interceptor() {
+      @Override
+      public void intercept(List<EpoxyModel<?>> models) {
+
+      }
+    });
+    controller.requestSectionBuild(feed);
+
+    assertEquals(2, controllerBuildCount);
+    assertEquals(2, header.buildCount);
+  }
+
+  private void sectionBuild(ModelSection section) {
+    testObserver.setUpForNextDiff(displayedModels);
+    controller.requestSectionBuild(section);
+
+    // Check that the notified operations produce the new list
+    EpoxyControllerAdapter adapter = controller.getAdapter();
+    List<TestModel> newModels = convertToTestModels(adapter.getCopyOfModels());
+    assertEquals(newModels.size(), testObserver.modelsAfterDiffing.size());
+    for (int i = 0; i < newModels.size(); i++) {
+      // Only the section's ids and view types are read again, the rest are kept from before
+      assertEquals(newModels.get(i).id(), adapter.getItemId(i));
+      assertEquals(ViewTypeManager.getViewTypeInternal(newModels.get(i)),
+          adapter.getItemViewType(i));
+
+      TestModel model = testObserver.modelsAfterDiffing.get(i);
+      if (model != InsertedModel.INSTANCE) {
+        assertEquals(newModels.get(i).id(), model.id());
+      }
+    }
+
+    displayedModels = newModels;
+  }
+
+  private static class TestSection extends ModelSection {
+    final List<TestModel> models = new ArrayList<>();
+    int buildCount;
+
+    TestSection(int firstId, int modelCount) {
+      for (int i = 0; i < modelCount; i++) {
+        models.add(new TestModel(firstId + i));
+      }
+    }
+
+    @Override
+    protected void buildModels(EpoxyController controller) {
+      buildCount++;
+      for (TestModel model : models) {
+        // Models can't be added again once they are changed, so copies are added
+        new TestModel(model.id())
+            .value(model.value())
+            .addTo(controller);
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.airbnb.epoxy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class ModelStateMapTest {
+
+  private final ModelStateMap map = new ModelStateMap();
+
+  @Test
+  public void putAndGet() {
+    ModelState state1 = state(1);
+    ModelState state2 = state(-2);
+
+    assertNull(map.put(state1));
+    assertNull(map.put(state2));
+
+    assertEquals(2, map.size());
+    assertSame(state1, map.get(1));
+    assertSame(state2, map.get(-2));
+    assertNull(map.get(3));
+  }
+
+  @Test
+  public void putReturnsPreviousStateWithSameId() {
+    ModelState state1 = state(1);
+    ModelState state2 = state(1);
+
+    map.put(state1);
+    assertSame(state1, map.put(state2));
+
+    assertEquals(1, map.size());
+    assertSame(state2, map.get(1));
+  }
+
+  @Test
+  public void growsWhenFull() {
+    int initialCapacity = map.capacity();
+    for (int i = 0; i < initialCapacity; i++) {
+      map.put(state(i));
+    }
+
+    assertEquals(initialCapacity, map.size());
+    for (int i = 0; i < initialCapacity; i++) {
+      assertEquals(i, map.get(i).id);
+    }
+  }
+
+  @Test
+  public void remove() {
+    ModelState state = state(1);
+    map.put(state);
+
+    assertSame(state, map.remove(1));
+    assertNull(map.remove(1));
+    assertNull(map.get(1));
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void randomOperationsMatchHashMap() {
+    Random random = new Random(0);
+    Map<Long, ModelState> expected = new HashMap<>();
+
+    for (int i = 0; i < 10000; i++) {
+      // Use a small range of ids so that there are plenty of collisions and repeated ids
+      long id = random.nextInt(200) - 100;
+      if (random.nextBoolean()) {
+        ModelState state = state(id);
+        assertSame(expected.put(id, state), map.put(state));
+      } else {
+        assertSame(expected.remove(id), map.remove(id));
+      }
+
+      assertEquals(expected.size(), map.size());
+    }
+
+    for (long id = -100; id < 100; id++) {
+      assertSame(expected.get(id), map.get(id));
+    }
+  }
+
+  @Test
+  public void clearKeepsCapacity() {
+    for (int i = 0; i < 100; i++) {
+      map.put(state(i));
+    }
+
+    int capacity = map.capacity();
+    map.clear();
+
+    assertEquals(0, map.size());
+    assertNull(map.get(1));
+    assertEquals(capacity, map.capacity());
+  }
+
+  @Test
+  public void refillingAfterClearDoesNotAllocate() {
+    AllocationCounter allocationCounter = new AllocationCounter();
+
+    final List<ModelState> states = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      states.add(state(i * 31));
+    }
+
+    // Fill once so the map reaches its steady state size
+    fill(states);
+
+    long bytesAllocated = allocationCounter.bytesAllocatedBy(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < 100; i++) {
+          fill(states);
+        }
+      }
+    });
+
+    // A map that allocated an entry per put would allocate far more than this
+    assertTrue("Allocated " + bytesAllocated + " bytes", bytesAllocated < states.size());
+  }
+
+  private void fill(List<ModelState> states) {
+    map.clear();
+    map.ensureCapacity(states.size());
+    // Indexed to avoid allocating an iterator
+    for (int i = 0; i < states.size(); i++) {
+      map.put(states.get(i));
+    }
+  }
+
+  private static ModelState state(long id) {
+    ModelState state = new ModelState();
+    state.id = id;
+    return state;
+  }
+}
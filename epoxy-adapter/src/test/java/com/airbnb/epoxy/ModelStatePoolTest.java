@@ -0,0 +1,104 @@
+package com.airbnb.epoxy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.airbnb.epoxy.ModelTestUtils.addModels;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class ModelStatePoolTest {
+
+  private final ModelStatePool pool = new ModelStatePool();
+
+  @Test
+  public void obtainReusesRecycledState() {
+    TestModel model = new TestModel();
+    ModelState state = pool.obtain(model, 0, true);
+    pool.recycle(Collections.singletonList(state));
+
+    TestModel otherModel = new TestModel();
+    ModelState reusedState = pool.obtain(otherModel, 3, true);
+
+    assertSame(state, reusedState);
+    assertSame(otherModel, reusedState.model);
+    assertEquals(otherModel.id(), reusedState.id);
+    assertEquals(3, reusedState.position);
+    assertNull(reusedState.pair);
+  }
+
+  @Test
+  public void recycleClearsReferences() {
+    ModelState state = pool.obtain(new TestModel(), 0, true);
+    pool.pairWithSelf(state);
+    ModelState pair = state.pair;
+
+    pool.recycle(Collections.singletonList(state));
+
+    assertNull(state.model);
+    assertNull(state.pair);
+    assertSame(state, pair.pair);
+  }
+
+  @Test
+  public void selfPairedStatesAreRecycled() {
+    ModelState state = pool.obtain(new TestModel(), 0, true);
+    pool.pairWithSelf(state);
+    ModelState pair = state.pair;
+
+    assertNotSame(state, pair);
+    assertSame(state, pair.pair);
+    assertEquals(state.id, pair.id);
+
+    pool.recycleSelfPairedStates();
+    assertSame(pair, pool.obtain(new TestModel(), 0, true));
+  }
+
+  @Test
+  public void repeatedDiffsDoNotAllocateStates() {
+    AllocationCounter allocationCounter = new AllocationCounter();
+
+    final TestAdapter adapter = new TestAdapter();
+    final List<EpoxyModel<?>> models = adapter.models;
+    addModels(1000, models);
+    adapter.notifyModelsChanged();
+
+    // Swapping the first and last models moves them both, so the common prefix and suffix are
+    // empty and the whole list goes through the full diff
+    final Runnable diff = new Runnable() {
+      @Override
+      public void run() {
+        Collections.swap(models, 0, models.size() - 1);
+        adapter.notifyModelsChanged();
+      }
+    };
+
+    // The first two diffs fill up the pool
+    diff.run();
+    diff.run();
+
+    final int diffCount = 50;
+    long bytesAllocated = allocationCounter.bytesAllocatedBy(new Runnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < diffCount; i++) {
+          diff.run();
+        }
+      }
+    });
+
+    // Each diff allocates a few objects, but nothing for each model
+    long bytesAllocatedPerDiff = bytesAllocated / diffCount;
+    assertTrue("Allocated " + bytesAllocatedPerDiff + " bytes per diff",
+        bytesAllocatedPerDiff < models.size());
+  }
+}
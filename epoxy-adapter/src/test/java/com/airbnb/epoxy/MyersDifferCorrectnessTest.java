@@ -0,0 +1,15 @@
+package com.airbnb.epoxy;
+
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+/** Runs the differ correctness tests with the Myers diff strategy. */
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class MyersDifferCorrectnessTest extends DifferCorrectnessTest {
+
+  @Override
+  DiffStrategy diffStrategy() {
+    return DiffStrategy.MYERS;
+  }
+}
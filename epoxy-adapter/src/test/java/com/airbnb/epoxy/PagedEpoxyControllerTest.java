@@ -0,0 +1,143 @@
+package com.airbnb.epoxy;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class PagedEpoxyControllerTest {
+
+  private final List<Integer> requestedPages = new ArrayList<>();
+  private final TestController controller = new TestController();
+
+  @Before
+  public void setUp() {
+    controller.setPageSource(new PagedEpoxyController.PageSource() {
+      @Override
+      public void loadPage(int pageIndex, int pageSize) {
+        requestedPages.add(pageIndex);
+      }
+    });
+    controller.setTotalItemCount(35);
+  }
+
+  @Test
+  public void unloadedItemsHavePlaceholders() {
+    assertEquals(35, controller.getAdapter().getItemCount());
+    assertEquals(35, controller.placeholdersBuilt);
+  }
+
+  @Test
+  public void submittedPageReplacesPlaceholders() {
+    EpoxyModel<?> firstPlaceholder = controller.getAdapter().getModelAtPosition(0);
+    EpoxyModel<?> lastPlaceholder = controller.getAdapter().getModelAtPosition(34);
+
+    controller.submitPage(1, createItems(10, 10));
+
+    assertEquals(35, controller.getAdapter().getItemCount());
+    assertEquals(10, controller.getAdapter().getModelAtPosition(10).id());
+    assertEquals(19, controller.getAdapter().getModelAtPosition(19).id());
+    assertNotSame(firstPlaceholder, controller.getAdapter().getModelAtPosition(9));
+    assertSame(firstPlaceholder, controller.getAdapter().getModelAtPosition(0));
+    assertSame(lastPlaceholder, controller.getAdapter().getModelAtPosition(34));
+    assertEquals(35, controller.placeholdersBuilt);
+  }
+
+  @Test
+  public void lastPageMayBeShort() {
+    controller.submitPage(3, createItems(30, 5));
+
+    assertEquals(35, controller.getAdapter().getItemCount());
+    assertEquals(34, controller.getAdapter().getModelAtPosition(34).id());
+  }
+
+  @Test
+  public void bindingLoadsPageAndPrefetchesNextPage() {
+    bind(0);
+    assertEquals(Arrays.asList(0, 1), requestedPages);
+
+    // Pages aren't requested again while loading
+    bind(5);
+    assertEquals(Arrays.asList(0, 1), requestedPages);
+
+    controller.submitPage(0, createItems(0, 10));
+    controller.submitPage(1, createItems(10, 10));
+    bind(12);
+    assertEquals(Arrays.asList(0, 1, 2), requestedPages);
+
+    // Nothing is loaded past the last item
+    bind(34);
+    assertEquals(Arrays.asList(0, 1, 2, 3), requestedPages);
+  }
+
+  @Test
+  public void failedPageIsRequestedAgain() {
+    bind(0);
+    assertEquals(Arrays.asList(0, 1), requestedPages);
+
+    controller.notifyPageLoadFailed(0);
+    bind(5);
+    assertEquals(Arrays.asList(0, 1, 0), requestedPages);
+  }
+
+  @Test
+  public void failedPageCanBeRetried() {
+    bind(0);
+    // Pages aren't retried while they are loading
+    controller.retryPage(0);
+    assertEquals(Arrays.asList(0, 1), requestedPages);
+
+    controller.notifyPageLoadFailed(0);
+    controller.retryPage(0);
+    assertEquals(Arrays.asList(0, 1, 0), requestedPages);
+  }
+
+  @Test
+  public void prefetchDistanceCanBeChanged() {
+    controller.setPrefetchDistance(0);
+    bind(9);
+    assertEquals(Arrays.asList(0), requestedPages);
+  }
+
+  private void bind(int position) {
+    EpoxyModel<?> model = controller.getAdapter().getModelAtPosition(position);
+    controller.onModelBoundInternal(null, model, position, null);
+  }
+
+  private static List<Integer> createItems(int start, int count) {
+    List<Integer> items = new ArrayList<>(count);
+    for (int i = start; i < start + count; i++) {
+      items.add(i);
+    }
+    return items;
+  }
+
+  private static class TestController extends PagedEpoxyController<Integer> {
+    int placeholdersBuilt;
+
+    TestController() {
+      super(10);
+    }
+
+    @Override
+    protected EpoxyModel<?> buildItemModel(int position, Integer item) {
+      return new TestModel(item);
+    }
+
+    @Override
+    protected EpoxyModel<?> buildPlaceholderModel(int position) {
+      placeholdersBuilt++;
+      return new TestModel();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.airbnb.epoxy;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the subsequence based move detectors find a valid longest increasing subsequence.
+ * Both detectors must find subsequences of the same length since that is what makes the number of
+ * moves minimal.
+ */
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class SubsequenceMoveDetectorTest {
+
+  private final SubsequenceMoveDetector increasingSubsequence =
+      new IncreasingSubsequenceMoveDetector();
+  private final SubsequenceMoveDetector myers = new MyersMoveDetector();
+
+  @Test
+  public void inOrder() {
+    assertStableCount(5, 0, 1, 2, 3, 4);
+  }
+
+  @Test
+  public void reversed() {
+    assertStableCount(1, 4, 3, 2, 1, 0);
+  }
+
+  @Test
+  public void singleMove() {
+    assertStableCount(4, 1, 2, 3, 4, 0);
+    assertStableCount(4, 4, 0, 1, 2, 3);
+    assertStableCount(4, 0, 3, 1, 2, 4);
+  }
+
+  @Test
+  public void randomPermutations() {
+    Random random = new Random(0);
+    for (int i = 0; i < 2000; i++) {
+      int size = random.nextInt(40);
+      List<Integer> targets = new ArrayList<>(size);
+      for (int target = 0; target < size; target++) {
+        targets.add(target);
+      }
+
+      if (random.nextBoolean()) {
+        Collections.shuffle(targets, random);
+      } else {
+        // Only move a few items, which is the case Myers is designed for
+        for (int move = random.nextInt(4); move > 0 && size > 0; move--) {
+          targets.add(random.nextInt(size), targets.remove(random.nextInt(size)));
+        }
+      }
+
+      int[] targetArray = new int[size];
+      for (int position = 0; position < size; position++) {
+        targetArray[position] = targets.get(position);
+      }
+
+      assertEquals(findStableItems(increasingSubsequence, targetArray),
+          findStableItems(myers, targetArray));
+    }
+  }
+
+  private void assertStableCount(int expectedCount, int... targets) {
+    assertEquals(expectedCount, findStableItems(increasingSubsequence, targets));
+    assertEquals(expectedCount, findStableItems(myers, targets));
+  }
+
+  /** Runs the detector and checks that the stable items it marked are in increasing order. */
+  private static int findStableItems(SubsequenceMoveDetector detector, int[] targets) {
+    int itemCount = targets.length;
+    detector.targetPositions = targets;
+    detector.stable = new boolean[itemCount];
+
+    int stableCount = detector.findStableItems(itemCount);
+
+    int markedCount = 0;
+    int lastTarget = -1;
+    for (int position = 0; position < itemCount; position++) {
+      if (detector.stable[position]) {
+        assertTrue("Stable items are not in order", targets[position] > lastTarget);
+        lastTarget = targets[position];
+        markedCount++;
+      }
+    }
+
+    assertEquals(stableCount, markedCount);
+    return stableCount;
+  }
+}
@@ -3,6 +3,10 @@ package com.airbnb.epoxy;
 class TestAdapter extends EpoxyAdapter {
 
   TestAdapter() {
-    enableDiffing();
+    this(DiffStrategy.DEFAULT);
+  }
+
+  TestAdapter(DiffStrategy diffStrategy) {
+    enableDiffing(diffStrategy);
   }
 }
@@ -0,0 +1,252 @@
+package com.airbnb.epoxy;
+
+import android.os.Parcel;
+
+import com.airbnb.epoxy.ViewHolderState.ViewState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class ViewHolderStateTest {
+  private static final int APP_VERSION = 1;
+
+  private File stateFile;
+
+  @Before
+  public void createStateFile() throws IOException {
+    stateFile = File.createTempFile("view_state", null);
+  }
+
+  @After
+  public void deleteStateFile() {
+    stateFile.delete();
+  }
+
+  @Test
+  public void leastRecentlyUsedStatesAreEvictedOverCountLimit() {
+    ViewHolderState state = new ViewHolderState();
+    state.setLimits(2, 0);
+
+    state.putState(1, new ViewState());
+    state.putState(2, new ViewState());
+    state.putState(1, new ViewState());
+    state.putState(3, new ViewState());
+
+    assertEquals(2, state.size());
+    assertNotNull(state.get(1));
+    assertNull(state.get(2));
+    assertNotNull(state.get(3));
+  }
+
+  @Test
+  public void statesAreEvictedOverByteLimit() {
+    int stateSize = ViewHolderState.parceledSize(new ViewState());
+    ViewHolderState state = new ViewHolderState();
+    state.setLimits(0, stateSize * 2);
+
+    for (int i = 0; i < 10; i++) {
+      state.putState(i, new ViewState());
+    }
+    // Sizes are only measured when the states are saved
+    assertEquals(10, state.size());
+
+    state.trimToLimits();
+
+    assertEquals(2, state.size());
+    assertEquals(stateSize * 2, state.getTotalBytes());
+    assertNotNull(state.get(8));
+    assertNotNull(state.get(9));
+  }
+
+  @Test
+  public void restoringStateMarksItAsUsed() throws IOException {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+    state.putState(2, new ViewState());
+    ViewStateFile.Handle handle = state.writeToFile(stateFile, APP_VERSION);
+
+    ViewHolderState restoredState = new ViewHolderState();
+    restoredState.setStateFile(new ViewStateFile(handle, APP_VERSION));
+    restoredState.setLimits(2, 0);
+    restoredState.getState(2);
+    restoredState.getState(1);
+    restoredState.putState(3, new ViewState());
+
+    assertNotNull(restoredState.get(1));
+    assertNull(restoredState.get(2));
+    assertNotNull(restoredState.get(3));
+  }
+
+  @Test
+  public void loweringLimitsEvictsStates() {
+    ViewHolderState state = new ViewHolderState();
+    for (int i = 0; i < 10; i++) {
+      state.putState(i, new ViewState());
+    }
+
+    state.setLimits(1, 0);
+
+    assertEquals(1, state.size());
+    assertNotNull(state.get(9));
+  }
+
+  @Test
+  public void statesOfRemovedModelsAreRemoved() {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+    state.putState(2, new ViewState());
+
+    ModelIdIndex currentIds = new ModelIdIndex(1);
+    currentIds.putIfAbsent(1, 0);
+    state.removeStatesNotIn(currentIds);
+
+    assertEquals(1, state.size());
+    assertNotNull(state.get(1));
+    assertEquals(ViewHolderState.parceledSize(state.get(1)), state.getTotalBytes());
+  }
+
+  @Test
+  public void restoredStatesAreKeptUntilSavedAgain() {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+
+    Parcel parcel = Parcel.obtain();
+    state.writeToParcel(parcel, 0);
+    parcel.setDataPosition(0);
+    ViewHolderState restoredState = ViewHolderState.CREATOR.createFromParcel(parcel);
+    parcel.recycle();
+
+    ModelIdIndex noIds = new ModelIdIndex(0);
+    restoredState.removeStatesNotIn(noIds);
+    assertNotNull(restoredState.get(1));
+
+    restoredState.putState(1, restoredState.get(1));
+    restoredState.removeStatesNotIn(noIds);
+    assertNull(restoredState.get(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeLimitIsNotAllowed() {
+    new ViewHolderState().setLimits(-1, 0);
+  }
+
+  @Test
+  public void statesAreReadFromFileWhenNeeded() throws IOException {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+    state.putState(2, new ViewState());
+    ViewStateFile.Handle handle = state.writeToFile(stateFile, APP_VERSION);
+
+    ViewHolderState restoredState = new ViewHolderState();
+    restoredState.setStateFile(new ViewStateFile(handle, APP_VERSION));
+    assertEquals(0, restoredState.size());
+
+    assertNotNull(restoredState.getState(2));
+    assertEquals(1, restoredState.size());
+    assertNull(restoredState.getState(3));
+  }
+
+  @Test
+  public void unreadStatesAreKeptWhenWrittenToFileAgain() throws IOException {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+    state.putState(2, new ViewState());
+
+    ViewHolderState restoredState = new ViewHolderState();
+    restoredState.setStateFile(
+        new ViewStateFile(state.writeToFile(stateFile, APP_VERSION), APP_VERSION));
+    restoredState.getState(1);
+    restoredState.putState(3, new ViewState());
+
+    ViewHolderState restoredAgainState = new ViewHolderState();
+    restoredAgainState.setStateFile(
+        new ViewStateFile(restoredState.writeToFile(stateFile, APP_VERSION), APP_VERSION));
+
+    assertNotNull(restoredAgainState.getState(1));
+    assertNotNull(restoredAgainState.getState(2));
+    assertNotNull(restoredAgainState.getState(3));
+  }
+
+  @Test
+  public void fileIsNotReadAfterItWasOverwritten() throws IOException {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+    ViewStateFile.Handle handle = state.writeToFile(stateFile, APP_VERSION);
+    state.writeToFile(stateFile, APP_VERSION);
+
+    ViewHolderState restoredState = new ViewHolderState();
+    restoredState.setStateFile(new ViewStateFile(handle, APP_VERSION));
+
+    try {
+      restoredState.getState(1);
+      fail("The overwritten file should not be read");
+    } catch (IOException e) {
+      // expected
+    }
+
+    // The file isn't used anymore once it fails
+    assertNull(restoredState.getState(1));
+  }
+
+  @Test
+  public void fileWrittenByAnotherAppVersionIsDropped() throws IOException {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+    ViewStateFile.Handle handle = state.writeToFile(stateFile, APP_VERSION);
+
+    ViewHolderState restoredState = new ViewHolderState();
+    restoredState.setStateFile(new ViewStateFile(handle, APP_VERSION + 1));
+
+    try {
+      restoredState.getState(1);
+      fail("A file of another app version should not be read");
+    } catch (IOException e) {
+      // expected
+    }
+
+    assertNull(restoredState.getState(1));
+  }
+
+  @Test
+  public void stateThatFailsToUnmarshallIsReportedAsIOException() throws IOException {
+    ViewHolderState state = new ViewHolderState();
+    state.putState(1, new ViewState());
+    ViewStateFile.Handle handle = state.writeToFile(stateFile, APP_VERSION);
+
+    // The state follows the 28 byte header and its 12 byte entry. A negative size fails to
+    // unmarshall with an unchecked exception.
+    RandomAccessFile out = new RandomAccessFile(stateFile, "rw");
+    try {
+      out.seek(28 + 12);
+      out.writeInt(-1);
+    } finally {
+      out.close();
+    }
+
+    ViewHolderState restoredState = new ViewHolderState();
+    restoredState.setStateFile(new ViewStateFile(handle, APP_VERSION));
+
+    try {
+      restoredState.getState(1);
+      fail("The corrupt state should not be read");
+    } catch (IOException e) {
+      // expected
+    }
+
+    assertNull(restoredState.getState(1));
+  }
+}
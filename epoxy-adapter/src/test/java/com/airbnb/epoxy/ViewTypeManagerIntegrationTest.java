@@ -10,7 +10,11 @@ import org.junit.runner.RunWith;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -87,6 +91,47 @@ public class ViewTypeManagerIntegrationTest {
     assertEquals(-3, adapter.getItemViewType(5));
   }
 
+  /** A view type in the range that the annotation processor generates view types in. */
+  private static final int PROCESSOR_VIEW_TYPE = Integer.MIN_VALUE + 1;
+
+  static class ModelWithProcessorViewType extends TestModel {
+
+    @Override
+    protected int getViewType() {
+      return PROCESSOR_VIEW_TYPE;
+    }
+  }
+
+  static class ModelWithProcessorViewType2 extends TestModel {
+
+    @Override
+    protected int getViewType() {
+      return PROCESSOR_VIEW_TYPE;
+    }
+  }
+
+  static class SubclassOfModelWithProcessorViewType extends ModelWithProcessorViewType {}
+
+  @Test(expected = IllegalStateException.class)
+  public void modelClassesWithSameProcessorViewTypeFail() {
+    SimpleEpoxyAdapter adapter = new SimpleEpoxyAdapter();
+    adapter.addModel(new ModelWithProcessorViewType());
+    adapter.addModel(new ModelWithProcessorViewType2());
+
+    adapter.getItemViewType(0);
+    adapter.getItemViewType(1);
+  }
+
+  @Test
+  public void subclassesCanShareProcessorViewType() {
+    SimpleEpoxyAdapter adapter = new SimpleEpoxyAdapter();
+    adapter.addModel(new ModelWithProcessorViewType());
+    adapter.addModel(new SubclassOfModelWithProcessorViewType());
+
+    assertEquals(PROCESSOR_VIEW_TYPE, adapter.getItemViewType(0));
+    assertEquals(PROCESSOR_VIEW_TYPE, adapter.getItemViewType(1));
+  }
+
   @Test
   public void fastModelLookupOfLastModel() {
     SimpleEpoxyAdapter adapter = spy(new SimpleEpoxyAdapter());
@@ -102,6 +147,36 @@ public class ViewTypeManagerIntegrationTest {
     verify(modelToAdd).buildView(null);
   }
 
+  @Test
+  public void fastModelLookupOfLastPositionInController() {
+    final TestModel firstModel = spy(new ModelWithViewType());
+    final TestModel secondModel = spy(new ModelWithViewType2());
+    final List<RuntimeException> swallowedExceptions = new ArrayList<>();
+    EpoxyController controller = new EpoxyController() {
+      @Override
+      protected void buildModels() {
+        add(firstModel.id(1));
+        add(secondModel.id(2));
+      }
+
+      @Override
+      protected void onExceptionSwallowed(RuntimeException exception) {
+        swallowedExceptions.add(exception);
+      }
+    };
+    controller.requestModelBuild();
+    EpoxyControllerAdapter adapter = controller.getAdapter();
+
+    int itemViewType = adapter.getItemViewType(1);
+
+    adapter.onCreateViewHolder(null, itemViewType);
+
+    // The model is looked up from the position only once the view is created
+    assertTrue(swallowedExceptions.isEmpty());
+    verify(secondModel).buildView(null);
+    verify(firstModel, never()).buildView(null);
+  }
+
   @Test
   public void fallbackLookupOfUnknownModel() {
     SimpleEpoxyAdapter adapter = spy(new SimpleEpoxyAdapter());
@@ -0,0 +1,168 @@
+package com.airbnb.epoxy;
+
+import android.support.v7.widget.RecyclerView.AdapterDataObserver;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Config(sdk = 21, manifest = TestRunner.MANIFEST_PATH)
+@RunWith(TestRunner.class)
+public class WindowedEpoxyControllerTest {
+
+  private static final int ITEM_COUNT = 1000;
+  private final TestController controller = new TestController();
+  private final ChangeObserver observer = new ChangeObserver();
+
+  @Before
+  public void setUp() {
+    controller.setWindowBuffer(5);
+    controller.requestModelBuild();
+    controller.getAdapter().registerAdapterDataObserver(observer);
+  }
+
+  @Test
+  public void onlyWindowHasModels() {
+    assertEquals(ITEM_COUNT, controller.getAdapter().getItemCount());
+    assertEquals(10, controller.itemModelsBuilt);
+    assertEquals(0, controller.placeholdersBuilt);
+    assertEquals(10, controller.getAdapter().getCopyOfModels().size());
+
+    assertTrue(isItemModel(9));
+    assertEquals(500, controller.getAdapter().getItemId(500));
+    assertEquals(0, controller.placeholdersBuilt);
+  }
+
+  @Test
+  public void placeholdersAreBuiltWhenShown() {
+    assertFalse(isItemModel(10));
+    assertEquals(10, controller.getAdapter().getModelAtPosition(10).id());
+    assertEquals(1, controller.placeholdersBuilt);
+
+    controller.getAdapter().getItemViewType(500);
+    assertEquals(2, controller.placeholdersBuilt);
+  }
+
+  @Test
+  public void windowFollowsVisibleItems() {
+    controller.itemModelsBuilt = 0;
+    controller.setVisibleItems(100, 105);
+
+    // The buffer is built on each side of the visible items
+    assertEquals(16, controller.itemModelsBuilt);
+    assertTrue(isItemModel(95));
+    assertTrue(isItemModel(110));
+    assertFalse(isItemModel(94));
+    assertFalse(isItemModel(111));
+
+    // The old window goes back to its placeholders
+    assertFalse(isItemModel(0));
+    assertEquals(ITEM_COUNT, controller.getAdapter().getItemCount());
+  }
+
+  @Test
+  public void smallScrollsDoNotMoveWindow() {
+    controller.setVisibleItems(100, 105);
+    controller.itemModelsBuilt = 0;
+
+    controller.setVisibleItems(102, 107);
+    assertEquals(0, controller.itemModelsBuilt);
+
+    controller.setVisibleItems(104, 109);
+    assertEquals(16, controller.itemModelsBuilt);
+    assertTrue(isItemModel(114));
+    assertFalse(isItemModel(98));
+  }
+
+  @Test
+  public void windowMoveOnlyNotifiesItemsEnteringAndLeavingIt() {
+    controller.setVisibleItems(3, 8);
+
+    // Items 0 to 9 were in the window, and now items 0 to 13 are. The models of items in both
+    // windows are the same, so only the new items change.
+    assertEquals(0, observer.dataSetChanges);
+    assertEquals(listOf(10, 11, 12, 13), observer.changedPositions);
+  }
+
+  @Test
+  public void windowMoveNotifiesItemsThatLeftIt() {
+    controller.setVisibleItems(100, 105);
+
+    assertEquals(0, observer.dataSetChanges);
+    assertEquals(26, observer.changedPositions.size());
+    assertEquals(0, (int) observer.changedPositions.get(0));
+    assertEquals(95, (int) observer.changedPositions.get(10));
+  }
+
+  @Test
+  public void dataChangeNotifiesAllItems() {
+    controller.requestModelBuild();
+
+    assertEquals(1, observer.dataSetChanges);
+    assertEquals(0, observer.changedPositions.size());
+  }
+
+  private static List<Integer> listOf(Integer... values) {
+    List<Integer> list = new ArrayList<>();
+    for (Integer value : values) {
+      list.add(value);
+    }
+    return list;
+  }
+
+  private boolean isItemModel(int position) {
+    return ((TestModel) controller.getAdapter().getModelAtPosition(position)).value() >= 0;
+  }
+
+  private static class ChangeObserver extends AdapterDataObserver {
+    final List<Integer> changedPositions = new ArrayList<>();
+    int dataSetChanges;
+
+    @Override
+    public void onChanged() {
+      dataSetChanges++;
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+      for (int i = positionStart; i < positionStart + itemCount; i++) {
+        changedPositions.add(i);
+      }
+    }
+  }
+
+  private static class TestController extends WindowedEpoxyController {
+    int itemModelsBuilt;
+    int placeholdersBuilt;
+
+    @Override
+    protected int getItemCount() {
+      return ITEM_COUNT;
+    }
+
+    @Override
+    protected long getItemId(int position) {
+      return position;
+    }
+
+    @Override
+    protected EpoxyModel<?> buildItemModel(int position) {
+      itemModelsBuilt++;
+      return new TestModel().value(position);
+    }
+
+    @Override
+    protected EpoxyModel<?> buildPlaceholderModel(int position) {
+      placeholdersBuilt++;
+      return new TestModel().value(-1);
+    }
+  }
+}
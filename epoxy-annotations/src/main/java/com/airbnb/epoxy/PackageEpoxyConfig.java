@@ -20,6 +20,7 @@ public @interface PackageEpoxyConfig {
   boolean REQUIRE_HASHCODE_DEFAULT = false;
   boolean REQUIRE_ABSTRACT_MODELS_DEFAULT = false;
   boolean IMPLICITLY_ADD_AUTO_MODELS_DEFAULT = false;
+  boolean CACHE_HASHCODE_DEFAULT = false;
   /**
    * If true, all fields marked with {@link com.airbnb.epoxy.EpoxyAttribute} must have a type that
    * implements hashCode and equals (besides the default Object implementation), or the attribute
@@ -60,4 +61,18 @@ public @interface PackageEpoxyConfig {
    * https://github.com/airbnb/epoxy/wiki/Epoxy-Controller#implicit-adding
    */
   boolean implicitlyAddAutoModels() default IMPLICITLY_ADD_AUTO_MODELS_DEFAULT;
+
+  /**
+   * If true, generated models cache their hashCode the first time it is computed. The cached value
+   * is cleared by every generated setter and by reset().
+   * <p>
+   * Diffing and model validation call hashCode on every model each time models are built, so this
+   * avoids rehashing models with large attributes, such as long CharSequences, lists, or arrays.
+   * <p>
+   * Changes that don't go through a generated setter, such as setting a field directly or mutating
+   * an object that was set on the model, don't clear the cached value. Those changes won't be
+   * detected by diffing or by model validation, so this should only be used when attribute values
+   * are immutable.
+   */
+  boolean cacheHashCode() default CACHE_HASHCODE_DEFAULT;
 }
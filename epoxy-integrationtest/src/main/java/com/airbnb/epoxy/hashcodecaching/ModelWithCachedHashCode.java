@@ -0,0 +1,18 @@
+package com.airbnb.epoxy.hashcodecaching;
+
+import android.widget.TextView;
+
+import com.airbnb.epoxy.EpoxyAttribute;
+import com.airbnb.epoxy.EpoxyModel;
+import com.airbnb.epoxy.EpoxyModelClass;
+import com.airbnb.epoxy.R;
+
+@EpoxyModelClass
+public abstract class ModelWithCachedHashCode extends EpoxyModel<TextView> {
+  @EpoxyAttribute int[] values;
+
+  @Override
+  protected int getDefaultLayout() {
+    return R.layout.model_with_click_listener;
+  }
+}
@@ -0,0 +1,4 @@
+@PackageEpoxyConfig(cacheHashCode = true)
+package com.airbnb.epoxy.hashcodecaching;
+
+import com.airbnb.epoxy.PackageEpoxyConfig;
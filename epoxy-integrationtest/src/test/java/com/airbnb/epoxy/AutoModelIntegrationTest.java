@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(constants = BuildConfig.class, sdk = 21)
@@ -30,6 +31,26 @@ public class AutoModelIntegrationTest {
     assertEquals("Second model", Model_.class, models.get(1).getClass());
   }
 
+  @Test
+  public void helpersAreCreatedByGeneratedFactory() {
+    BasicAutoModelsAdapter controller = new BasicAutoModelsAdapter();
+    ControllerHelperFactory factory = new BasicAutoModelsAdapter_EpoxyHelperFactory();
+
+    assertTrue(factory.createHelper(controller) instanceof BasicAutoModelsAdapter_EpoxyHelper);
+  }
+
+  @Test
+  public void subclassOfControllerUsesSuperclassHelper() {
+    BasicAutoModelsAdapter controller = new BasicAutoModelsAdapter() {
+    };
+    controller.requestModelBuild();
+
+    List<EpoxyModel<?>> models = controller.getAdapter().getCopyOfModels();
+
+    assertEquals("Models size", 2, models.size());
+    assertEquals("First model", Model_.class, models.get(0).getClass());
+  }
+
   @Test(expected = IllegalStateException.class)
   public void assigningValueToFieldFails() {
     AdapterWithFieldAssigned testAdapter = new AdapterWithFieldAssigned();
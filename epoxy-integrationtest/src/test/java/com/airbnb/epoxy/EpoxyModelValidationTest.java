@@ -11,8 +11,13 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 @RunWith(RobolectricTestRunner.class)
 @Config(constants = BuildConfig.class, sdk = 21)
 public class EpoxyModelValidationTest {
@@ -44,6 +49,21 @@ public class EpoxyModelValidationTest {
     controller.requestModelBuild();
   }
 
+  @Test
+  public void modelCanBeAddedAgainInNextModelBuild() {
+    final Model model = new Model_().id(1);
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        add(model);
+      }
+    };
+
+    controller.requestModelBuild();
+    controller.requestModelBuild();
+  }
+
   @Test
   public void addToOnlyValidInsideBuildModels() {
     thrown.expect(IllegalEpoxyUsage.class);
@@ -284,6 +304,31 @@ public class EpoxyModelValidationTest {
     controller.requestModelBuild();
   }
 
+  @Test
+  public void mutationNotAllowedDuringInterceptorCallOfLaterModelBuild() {
+    thrown.expect(ImmutableModelException.class);
+
+    final Model model = new Model_().id(1);
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        add(model);
+      }
+    };
+
+    controller.requestModelBuild();
+
+    controller.addInterceptor(new Interceptor() {
+      @Override
+      public void intercept(List<EpoxyModel<?>> models) {
+        model.reset();
+      }
+    });
+
+    controller.requestModelBuild();
+  }
+
   @Test
   public void hashChangeThrows_beforeBind() {
     thrown.expect(ImmutableModelException.class);
@@ -356,4 +401,47 @@ public class EpoxyModelValidationTest {
 
     controller.requestModelBuild();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void sampledValidationFailuresAreReported() {
+    final Model model = new Model_().id(1);
+    final List<RuntimeException> swallowedExceptions = new ArrayList<>();
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        add(model);
+      }
+
+      @Override
+      protected void onExceptionSwallowed(RuntimeException exception) {
+        swallowedExceptions.add(exception);
+      }
+    };
+
+    controller.setModelValidationSampleRate(1);
+    controller.requestModelBuild();
+    model.reset();
+
+    assertEquals(1, swallowedExceptions.size());
+    assertTrue(swallowedExceptions.get(0) instanceof ImmutableModelException);
+  }
+
+  @Test
+  public void unsampledModelsAreNotValidated() {
+    final Model model = new Model_().id(1);
+    EpoxyController controller = new EpoxyController() {
+
+      @Override
+      protected void buildModels() {
+        add(model);
+      }
+    };
+
+    controller.setModelValidationSampleRate(0);
+    controller.requestModelBuild();
+    model.reset();
+
+    assertFalse(model.isDebugValidationEnabled());
+  }
+}
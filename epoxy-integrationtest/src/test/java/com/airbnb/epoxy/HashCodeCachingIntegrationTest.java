@@ -0,0 +1,50 @@
+package com.airbnb.epoxy;
+
+import com.airbnb.epoxy.hashcodecaching.ModelWithCachedHashCode_;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class HashCodeCachingIntegrationTest {
+
+  @Test
+  public void setterClearsCachedHashCode() {
+    ModelWithCachedHashCode_ model = new ModelWithCachedHashCode_().values(new int[] {1});
+    int firstHashCode = model.hashCode();
+
+    model.values(new int[] {2});
+
+    assertNotEquals(firstHashCode, model.hashCode());
+    assertEquals(new ModelWithCachedHashCode_().values(new int[] {2}).hashCode(),
+        model.hashCode());
+  }
+
+  @Test
+  public void resetClearsCachedHashCode() {
+    ModelWithCachedHashCode_ model = new ModelWithCachedHashCode_().values(new int[] {1});
+    int firstHashCode = model.hashCode();
+
+    model.reset();
+
+    assertNotEquals(firstHashCode, model.hashCode());
+    assertEquals(new ModelWithCachedHashCode_().hashCode(), model.hashCode());
+  }
+
+  @Test
+  public void changeOutsideSetterIsNotSeen() {
+    ModelWithCachedHashCode_ model = new ModelWithCachedHashCode_().values(new int[] {1});
+    int firstHashCode = model.hashCode();
+
+    // Attribute values must be immutable when the hashCode is cached
+    model.values()[0] = 2;
+
+    assertEquals(firstHashCode, model.hashCode());
+  }
+}
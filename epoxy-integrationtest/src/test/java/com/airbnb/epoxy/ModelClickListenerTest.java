@@ -11,16 +11,19 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNotSame;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -82,6 +85,44 @@ public class ModelClickListenerTest {
         .onClick(eq(model), any(View.class), nullable(View.class), anyInt());
   }
 
+  @Test
+  public void bindingAnotherModelToHolderDoesNotChangeModel() {
+    ModelClickListener modelClickListener = spy(new ModelClickListener());
+    TestController controller = new TestController();
+
+    ModelWithClickListener_ model = new ModelWithClickListener_();
+    model.clickListener(modelClickListener);
+    OnClickListener clickListener = model.clickListener();
+    int hashCode = model.hashCode();
+    controller.setModel(model);
+    controller.requestModelBuild();
+
+    EpoxyControllerAdapter adapter = controller.getAdapter();
+    EpoxyViewHolder viewHolder = ControllerLifecycleHelper.createViewHolder(adapter, 0);
+    adapter.onBindViewHolder(viewHolder, 0);
+
+    // Binding reuses the click listener that the setter created
+    assertSame(clickListener, model.clickListener());
+
+    ModelClickListener secondModelClickListener = spy(new ModelClickListener());
+    ModelWithClickListener_ secondModel = new ModelWithClickListener_();
+    secondModel.clickListener(secondModelClickListener);
+    controller.setModel(secondModel);
+    controller.requestModelBuild();
+    adapter.onBindViewHolder(viewHolder, 0);
+
+    // The click listener attribute is hashed, so the first model must not change
+    assertSame(clickListener, model.clickListener());
+    assertEquals(hashCode, model.hashCode());
+
+    secondModel.clickListener().onClick(null);
+    verify(secondModelClickListener)
+        .onClick(eq(secondModel), any(View.class), nullable(View.class), anyInt());
+    verify(modelClickListener, never())
+        .onClick(any(ModelWithClickListener_.class), any(View.class), nullable(View.class),
+            anyInt());
+  }
+
   @Test
   public void modelClickListenerOverridesViewClickListener() {
     final ModelWithClickListener_ model = new ModelWithClickListener_();
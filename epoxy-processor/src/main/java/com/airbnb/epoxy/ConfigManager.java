@@ -21,6 +21,7 @@ class ConfigManager {
   static final String PROCESSOR_OPTION_REQUIRE_HASHCODE = "requireHashCodeInEpoxyModels";
   static final String PROCESSOR_OPTION_REQUIRE_ABSTRACT_MODELS = "requireAbstractEpoxyModels";
   static final String PROCESSOR_IMPLICITLY_ADD_AUTO_MODELS = "implicitlyAddAutoModels";
+  static final String PROCESSOR_OPTION_CACHE_HASHCODE = "cacheEpoxyModelHashCode";
 
   private static final PackageConfigSettings
       DEFAULT_PACKAGE_CONFIG_SETTINGS = PackageConfigSettings.forDefaults();
@@ -30,6 +31,7 @@ class ConfigManager {
   private final boolean globalRequireHashCode;
   private final boolean globalRequireAbstractModels;
   private final boolean globalImplicitlyAddAutoModels;
+  private final boolean globalCacheHashCode;
 
   ConfigManager(Map<String, String> options, Elements elementUtils) {
     this.elementUtils = elementUtils;
@@ -45,6 +47,9 @@ class ConfigManager {
     globalImplicitlyAddAutoModels =
         getBooleanOption(options, PROCESSOR_IMPLICITLY_ADD_AUTO_MODELS,
             PackageEpoxyConfig.IMPLICITLY_ADD_AUTO_MODELS_DEFAULT);
+
+    globalCacheHashCode = getBooleanOption(options, PROCESSOR_OPTION_CACHE_HASHCODE,
+        PackageEpoxyConfig.CACHE_HASHCODE_DEFAULT);
   }
 
   private static boolean getBooleanOption(Map<String, String> options, String option,
@@ -105,6 +110,11 @@ class ConfigManager {
         || getConfigurationForElement(controller.controllerClassElement).implicitlyAddAutoModels;
   }
 
+  boolean cachesHashCode(GeneratedModelInfo modelInfo) {
+    return globalCacheHashCode
+        || getConfigurationForPackage(modelInfo.getGeneratedName().packageName()).cacheHashCode;
+  }
+
   boolean shouldValidateModelUsage() {
     return validateModelUsage;
   }
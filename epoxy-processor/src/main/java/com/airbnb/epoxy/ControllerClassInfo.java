@@ -11,15 +11,21 @@ import javax.lang.model.util.Elements;
 
 class ControllerClassInfo {
   private static final String GENERATED_HELPER_CLASS_SUFFIX = "_EpoxyHelper";
+  /** Must match ControllerHelperFactory#GENERATED_CLASS_SUFFIX, which finds it at runtime. */
+  private static final String GENERATED_FACTORY_CLASS_SUFFIX = "_EpoxyHelperFactory";
   private final Elements elementUtils;
   final List<ControllerModelField> models = new ArrayList<>();
   final ClassName generatedClassName;
+  final ClassName generatedFactoryClassName;
   final TypeName controllerClassType;
   final TypeElement controllerClassElement;
 
   ControllerClassInfo(Elements elementUtils, TypeElement controllerClassElement) {
     this.elementUtils = elementUtils;
-    generatedClassName = getGeneratedClassName(controllerClassElement);
+    generatedClassName =
+        getGeneratedClassName(controllerClassElement, GENERATED_HELPER_CLASS_SUFFIX);
+    generatedFactoryClassName =
+        getGeneratedClassName(controllerClassElement, GENERATED_FACTORY_CLASS_SUFFIX);
     controllerClassType = TypeName.get(controllerClassElement.asType());
     this.controllerClassElement = controllerClassElement;
   }
@@ -28,14 +34,14 @@ class ControllerClassInfo {
     models.add(controllerModelField);
   }
 
-  private ClassName getGeneratedClassName(TypeElement controllerClass) {
+  private ClassName getGeneratedClassName(TypeElement controllerClass, String suffix) {
     String packageName = elementUtils.getPackageOf(controllerClass).getQualifiedName().toString();
 
     int packageLen = packageName.length() + 1;
     String className =
         controllerClass.getQualifiedName().toString().substring(packageLen).replace('.', '$');
 
-    return ClassName.get(packageName, className + GENERATED_HELPER_CLASS_SUFFIX);
+    return ClassName.get(packageName, className + suffix);
   }
 
   @Override
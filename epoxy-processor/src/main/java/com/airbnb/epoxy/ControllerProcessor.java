@@ -9,6 +9,7 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -36,6 +37,8 @@ import static com.airbnb.epoxy.Utils.validateFieldAccessibleViaGeneratedCode;
 
 class ControllerProcessor {
   private static final String CONTROLLER_HELPER_INTERFACE = "com.airbnb.epoxy.ControllerHelper";
+  private static final String CONTROLLER_HELPER_FACTORY_INTERFACE =
+      "com.airbnb.epoxy.ControllerHelperFactory";
   private Filer filer;
   private Elements elementUtils;
   private ErrorLogger errorLogger;
@@ -167,12 +170,44 @@ class ControllerProcessor {
     for (Entry<TypeElement, ControllerClassInfo> controllerInfo : controllerClassMap.entrySet()) {
       try {
         generateHelperClassForController(controllerInfo.getValue());
+        generateHelperFactoryForController(controllerInfo.getValue());
       } catch (Exception e) {
         errorLogger.logError(e);
       }
     }
   }
 
+  /**
+   * Generates the ControllerHelperFactory of a controller, which creates its helper directly so
+   * that the helper doesn't need to be created with reflection. The factory is named after the
+   * controller, like the helper, so that factories generated in different modules can't clash.
+   */
+  private void generateHelperFactoryForController(ControllerClassInfo controllerInfo)
+      throws IOException {
+    ClassName controllerClass = ClassName.get(controllerInfo.controllerClassElement);
+
+    MethodSpec createHelperMethod = MethodSpec.methodBuilder("createHelper")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(ParameterizedTypeName.get(getClassName(CONTROLLER_HELPER_INTERFACE),
+            WildcardTypeName.subtypeOf(Object.class)))
+        .addParameter(getClassName(EPOXY_CONTROLLER_TYPE), "controller")
+        .addStatement("return new $T(($T) controller)", controllerInfo.generatedClassName,
+            controllerClass)
+        .build();
+
+    TypeSpec factory = TypeSpec.classBuilder(controllerInfo.generatedFactoryClassName)
+        .addJavadoc("Generated file. Do not modify!")
+        .addModifiers(Modifier.PUBLIC)
+        .addSuperinterface(getClassName(CONTROLLER_HELPER_FACTORY_INTERFACE))
+        .addMethod(createHelperMethod)
+        .build();
+
+    JavaFile.builder(controllerInfo.generatedFactoryClassName.packageName(), factory)
+        .build()
+        .writeTo(filer);
+  }
+
   private void generateHelperClassForController(ControllerClassInfo controllerInfo)
       throws IOException {
     ClassName superclass = ClassName.get(elementUtils.getTypeElement(CONTROLLER_HELPER_INTERFACE));
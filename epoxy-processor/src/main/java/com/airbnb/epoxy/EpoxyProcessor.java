@@ -22,6 +22,7 @@ import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 
 import static com.airbnb.epoxy.ConfigManager.PROCESSOR_IMPLICITLY_ADD_AUTO_MODELS;
+import static com.airbnb.epoxy.ConfigManager.PROCESSOR_OPTION_CACHE_HASHCODE;
 import static com.airbnb.epoxy.ConfigManager.PROCESSOR_OPTION_VALIDATE_MODEL_USAGE;
 
 /**
@@ -75,6 +76,13 @@ public class EpoxyProcessor extends AbstractProcessor {
     return new EpoxyProcessor(options);
   }
 
+  /** For testing. */
+  public static EpoxyProcessor withHashCodeCaching() {
+    HashMap<String, String> options = new HashMap<>();
+    options.put(PROCESSOR_OPTION_CACHE_HASHCODE, "true");
+    return new EpoxyProcessor(options);
+  }
+
   @Override
   public synchronized void init(ProcessingEnvironment processingEnv) {
     super.init(processingEnv);
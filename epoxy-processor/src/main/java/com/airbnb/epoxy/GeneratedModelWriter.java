@@ -14,28 +14,40 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 
 import java.io.IOException;
 import java.lang.annotation.AnnotationTypeMismatchException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.util.Types;
 
 import static com.airbnb.epoxy.Utils.EPOXY_CONTROLLER_TYPE;
+import static com.airbnb.epoxy.Utils.EPOXY_MODEL_WITH_VIEW_TYPE;
 import static com.airbnb.epoxy.Utils.EPOXY_VIEW_HOLDER_TYPE;
 import static com.airbnb.epoxy.Utils.GENERATED_MODEL_INTERFACE;
 import static com.airbnb.epoxy.Utils.MODEL_CLICK_LISTENER_TYPE;
 import static com.airbnb.epoxy.Utils.ON_BIND_MODEL_LISTENER_TYPE;
 import static com.airbnb.epoxy.Utils.ON_UNBIND_MODEL_LISTENER_TYPE;
 import static com.airbnb.epoxy.Utils.UNTYPED_EPOXY_MODEL_TYPE;
+import static com.airbnb.epoxy.Utils.UNTYPED_EPOXY_MODEL_WITH_HOLDER_TYPE;
 import static com.airbnb.epoxy.Utils.WRAPPED_LISTENER_TYPE;
 import static com.airbnb.epoxy.Utils.getClassName;
+import static com.airbnb.epoxy.Utils.getMethodOnClass;
 import static com.airbnb.epoxy.Utils.implementsMethod;
 import static com.airbnb.epoxy.Utils.isDataBindingModel;
 import static com.airbnb.epoxy.Utils.isEpoxyModel;
@@ -51,6 +63,7 @@ import static com.squareup.javapoet.TypeName.SHORT;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
 
 class GeneratedModelWriter {
   /**
@@ -60,6 +73,15 @@ class GeneratedModelWriter {
   static final String GENERATED_FIELD_SUFFIX = "_epoxyGeneratedModel";
   private static final String CREATE_NEW_HOLDER_METHOD_NAME = "createNewHolder";
   private static final String GET_DEFAULT_LAYOUT_METHOD_NAME = "getDefaultLayout";
+  private static final String GET_VIEW_TYPE_METHOD_NAME = "getViewType";
+  /**
+   * Generated view types are in this negative range, so they can't clash with layout resources or
+   * with the view types that are created at runtime counting down from -1. Collisions within a
+   * module are reported here, and ViewTypeManager fails on collisions between modules.
+   */
+  private static final int GENERATED_VIEW_TYPE_MASK = 0x3FFFFFFF;
+  /** Changed attributes are passed to bind as bits of a long, so only this many can be tracked. */
+  private static final int MAX_CHANGED_ATTRIBUTE_FLAGS = 64;
 
   private final Filer filer;
   private final Types typeUtils;
@@ -67,6 +89,8 @@ class GeneratedModelWriter {
   private final LayoutResourceProcessor layoutResourceProcessor;
   private final ConfigManager configManager;
   private final DataBindingModuleLookup dataBindingModuleLookup;
+  /** The models that each generated view type was used for, to catch two models sharing one. */
+  private final Map<Integer, String> generatedViewTypes = new HashMap<>();
 
   interface BeforeBuildCallback {
     void modifyBuilder(TypeSpec.Builder builder);
@@ -106,6 +130,7 @@ class GeneratedModelWriter {
 
     builder
         .addMethods(generateBindMethods(info))
+        .addMethods(generateChangedAttributesBindMethodIfNeeded(info))
         .addMethods(generateSettersAndGetters(info))
         .addMethods(generateMethodsReturningClassType(info))
         .addMethods(generateDefaultMethodImplementations(info))
@@ -135,6 +160,17 @@ class GeneratedModelWriter {
   private Iterable<FieldSpec> generateFields(GeneratedModelInfo classInfo) {
     List<FieldSpec> fields = new ArrayList<>();
 
+    if (shouldTrackChangedAttributes(classInfo)) {
+      // Add a flag for each attribute to identify it in the changed attributes passed to bind
+      int flagIndex = 0;
+      for (AttributeInfo attributeInfo : classInfo.getAttributeInfo()) {
+        fields.add(FieldSpec.builder(LONG, changedAttributeFlagName(attributeInfo), PUBLIC, STATIC,
+            FINAL)
+            .initializer("1L << $L", flagIndex++)
+            .build());
+      }
+    }
+
     // Add fields for the bind/unbind listeners
     ParameterizedTypeName onBindListenerType = ParameterizedTypeName.get(
         getClassName(ON_BIND_MODEL_LISTENER_TYPE),
@@ -175,6 +211,11 @@ class GeneratedModelWriter {
       }
     }
 
+    if (configManager.cachesHashCode(classInfo)) {
+      fields.add(FieldSpec.builder(INT, cachedHashCodeFieldName(), PRIVATE).build());
+      fields.add(FieldSpec.builder(BOOLEAN, hashCodeCachedFieldName(), PRIVATE).build());
+    }
+
     return fields;
   }
 
@@ -188,6 +229,16 @@ class GeneratedModelWriter {
     return "onModelBoundListener" + GENERATED_FIELD_SUFFIX;
   }
 
+  @NonNull
+  private String cachedHashCodeFieldName() {
+    return "cachedHashCode" + GENERATED_FIELD_SUFFIX;
+  }
+
+  @NonNull
+  private String hashCodeCachedFieldName() {
+    return "hashCodeCached" + GENERATED_FIELD_SUFFIX;
+  }
+
   private ParameterizedTypeName getModelClickListenerType(GeneratedModelInfo classInfo) {
     return ParameterizedTypeName.get(
         getClassName(MODEL_CLICK_LISTENER_TYPE),
@@ -195,6 +246,24 @@ class GeneratedModelWriter {
         classInfo.getModelType());
   }
 
+  /**
+   * The name of the constant for the attribute's bit in the changed attributes passed to bind. This
+   * is the attribute name in upper snake case with an "ATTRIBUTE_" prefix, eg ATTRIBUTE_IMAGE_URL.
+   */
+  private static String changedAttributeFlagName(AttributeInfo attribute) {
+    String attributeName = attribute.getName();
+    StringBuilder flagName = new StringBuilder("ATTRIBUTE_");
+    for (int i = 0; i < attributeName.length(); i++) {
+      char c = attributeName.charAt(i);
+      if (i > 0 && Character.isUpperCase(c)
+          && Character.isLowerCase(attributeName.charAt(i - 1))) {
+        flagName.append('_');
+      }
+      flagName.append(Character.toUpperCase(c));
+    }
+    return flagName.toString();
+  }
+
   /** Include any constructors that are in the super class. */
   private Iterable<MethodSpec> generateConstructors(GeneratedModelInfo info) {
     List<MethodSpec> constructors = new ArrayList<>(info.getConstructors().size());
@@ -254,32 +323,18 @@ class GeneratedModelWriter {
     addHashCodeValidationIfNecessary(preBindBuilder,
         "The model was changed between being added to the controller and being bound.");
 
-    ClassName viewType = getClassName("android.view.View");
-    ClassName clickWrapperType = getClassName(WRAPPED_LISTENER_TYPE);
-    ClassName modelClickListenerType = getClassName(MODEL_CLICK_LISTENER_TYPE);
     for (AttributeInfo attribute : classInfo.getAttributeInfo()) {
       if (!attribute.isViewClickListener()) {
         continue;
       }
-      // Generate a View.OnClickListener that wraps the model click listener and set it as the
-      // view click listener of the original model.
+      // The View.OnClickListener that wraps the model click listener was created by the setter and
+      // is reused for every bind. It only needs to know the view holder it is bound to now, which
+      // doesn't change its hashCode, so the model's state is untouched.
 
       String modelClickListenerField = attribute.getModelClickListenerName();
-      preBindBuilder.beginControlFlow("if ($L != null)", modelClickListenerField);
-
-      CodeBlock clickListenerCodeBlock = CodeBlock.of(
-          "new $T($L) {\n"
-              + "    @Override\n"
-              + "    protected void wrappedOnClick($T v, $T originalClickListener) {\n"
-              + "       originalClickListener.onClick($L.this, object, v,\n"
-              + "              holder.getAdapterPosition());\n"
-              + "       }\n"
-              + "    }",
-          clickWrapperType, modelClickListenerField, viewType, modelClickListenerType,
-          classInfo.getGeneratedName());
-
       preBindBuilder
-          .addStatement(attribute.setterCode(), clickListenerCodeBlock)
+          .beginControlFlow("if ($L != null)", modelClickListenerField)
+          .addStatement("holder.bindModelClickListener($L)", attribute.getterCode())
           .endControlFlow();
     }
 
@@ -320,9 +375,10 @@ class GeneratedModelWriter {
         .addParameter(bindListenerParam);
 
     addOnMutationCall(onBind)
-        .addStatement("this.$L = listener", modelBindListenerFieldName())
-        .addStatement("return this")
-        .build();
+        .addStatement("this.$L = listener", modelBindListenerFieldName());
+
+    addHashCodeInvalidationIfNeeded(onBind, classInfo)
+        .addStatement("return this");
 
     methods.add(onBind.build());
 
@@ -365,7 +421,9 @@ class GeneratedModelWriter {
 
     addOnMutationCall(onUnbind)
         .addParameter(unbindListenerParam)
-        .addStatement("this.$L = listener", modelUnbindListenerFieldName())
+        .addStatement("this.$L = listener", modelUnbindListenerFieldName());
+
+    addHashCodeInvalidationIfNeeded(onUnbind, classInfo)
         .addStatement("return this");
 
     methods.add(onUnbind.build());
@@ -373,6 +431,126 @@ class GeneratedModelWriter {
     return methods;
   }
 
+  /**
+   * Models annotated with {@link EpoxyModelClass} have the changes to their attributes tracked when
+   * they are rebound, so that they can update only the parts of the view that changed. This is
+   * skipped if the model already implements binding with a previously bound model itself, which is
+   * the case for data binding models, or if two attributes would have the same flag name.
+   */
+  private boolean shouldTrackChangedAttributes(GeneratedModelInfo info) {
+    TypeElement modelClass = info.getSuperClassElement();
+    if (modelClass.getAnnotation(EpoxyModelClass.class) == null) {
+      return false;
+    }
+
+    int attributeCount = info.getAttributeInfo().size();
+    if (attributeCount == 0 || attributeCount > MAX_CHANGED_ATTRIBUTE_FLAGS) {
+      return false;
+    }
+
+    // Attributes such as "imageUrl" and "image_url" would both have the flag ATTRIBUTE_IMAGE_URL
+    Set<String> flagNames = new HashSet<>();
+    for (AttributeInfo attribute : info.getAttributeInfo()) {
+      if (!flagNames.add(changedAttributeFlagName(attribute))) {
+        return false;
+      }
+    }
+
+    return !implementsPreviouslyBoundModelBind(modelClass);
+  }
+
+  /**
+   * Whether the model class or one of its superclasses overrides bind(view, previouslyBoundModel).
+   * The view parameter is often a type variable of a base class, so only the name and the erasure
+   * of the model parameter are matched. The implementations in EpoxyModel and EpoxyModelWithHolder
+   * just bind the whole view, so they are ignored.
+   */
+  private boolean implementsPreviouslyBoundModelBind(TypeElement modelClass) {
+    ClassName epoxyModelClassName = getClassName(UNTYPED_EPOXY_MODEL_TYPE);
+
+    TypeElement clazz = modelClass;
+    while (clazz != null && !isBaseModelClass(clazz)) {
+      for (Element element : clazz.getEnclosedElements()) {
+        if (element.getKind() != ElementKind.METHOD
+            || !element.getSimpleName().contentEquals("bind")
+            || element.getModifiers().contains(Modifier.ABSTRACT)) {
+          continue;
+        }
+
+        List<? extends VariableElement> params = ((ExecutableElement) element).getParameters();
+        if (params.size() == 2
+            && TypeName.get(typeUtils.erasure(params.get(1).asType()))
+            .equals(epoxyModelClassName)) {
+          return true;
+        }
+      }
+
+      clazz = (TypeElement) typeUtils.asElement(clazz.getSuperclass());
+    }
+
+    return false;
+  }
+
+  private static boolean isBaseModelClass(TypeElement clazz) {
+    String className = clazz.getQualifiedName().toString();
+    return className.equals(UNTYPED_EPOXY_MODEL_TYPE)
+        || className.equals(UNTYPED_EPOXY_MODEL_WITH_HOLDER_TYPE);
+  }
+
+  private MethodSpec buildPreviouslyBoundModelBindMethod(GeneratedModelInfo info) {
+    ParameterizedTypeName previousModelType =
+        ParameterizedTypeName.get(getClassName(UNTYPED_EPOXY_MODEL_TYPE),
+            WildcardTypeName.subtypeOf(Object.class));
+
+    return MethodSpec.methodBuilder("bind")
+        .addAnnotation(Override.class)
+        .addModifiers(PUBLIC)
+        .addParameter(info.getModelType(), "object")
+        .addParameter(previousModelType, "previouslyBoundModel")
+        .build();
+  }
+
+  /**
+   * Generates a bind implementation that compares each attribute to the previously bound model and
+   * passes a flag for each attribute that changed on to bind(object, changedAttributes).
+   */
+  private Iterable<MethodSpec> generateChangedAttributesBindMethodIfNeeded(
+      GeneratedModelInfo info) {
+    if (!shouldTrackChangedAttributes(info)) {
+      return Collections.emptyList();
+    }
+
+    ClassName generatedModelClass = info.getGeneratedName();
+
+    Builder builder = buildPreviouslyBoundModelBindMethod(info)
+        .toBuilder()
+        .beginControlFlow("if (!(previouslyBoundModel instanceof $T))", generatedModelClass)
+        .addStatement("super.bind(object, previouslyBoundModel)")
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("$T that = ($T) previouslyBoundModel", generatedModelClass,
+            generatedModelClass)
+        .addStatement("long changedAttributes = 0");
+
+    for (AttributeInfo attribute : info.getAttributeInfo()) {
+      if (attribute.getTypeName().isPrimitive() || attribute.useInHash()) {
+        startNotEqualsControlFlow(builder, attribute);
+      } else {
+        // Attributes that aren't hashed, such as listeners, are rebound whenever the instance
+        // changes so the view never keeps an outdated one.
+        String getter = attribute.getterCode();
+        builder.beginControlFlow("if ($L != that.$L)", getter, getter);
+      }
+
+      builder.addStatement("changedAttributes |= $L", changedAttributeFlagName(attribute))
+          .endControlFlow();
+    }
+
+    return Collections.singletonList(builder
+        .addStatement("bind(object, changedAttributes)")
+        .build());
+  }
+
   private Iterable<MethodSpec> generateMethodsReturningClassType(GeneratedModelInfo info) {
     List<MethodSpec> methods = new ArrayList<>(info.getMethodsReturningClassType().size());
 
@@ -388,8 +566,10 @@ class GeneratedModelWriter {
           methodInfo.name));
       generateParams(statementBuilder, methodInfo.params);
 
+      builder.addStatement(statementBuilder.toString());
+      addHashCodeInvalidationIfNeeded(builder, info);
+
       methods.add(builder
-          .addStatement(statementBuilder.toString())
           .addStatement("return this")
           .build());
     }
@@ -406,10 +586,49 @@ class GeneratedModelWriter {
 
     addCreateHolderMethodIfNeeded(info, methods);
     addDefaultLayoutMethodIfNeeded(info, methods);
+    addViewTypeMethodIfNeeded(info, methods);
 
     return methods;
   }
 
+  /**
+   * Models that create their views in code, instead of from a layout, need a view type that isn't
+   * a layout resource. If the model doesn't implement getViewType then one would be assigned at
+   * runtime, which needs a map lookup by class and can change between runs. Instead we generate a
+   * view type from the generated class name, so it is constant and stable across builds.
+   */
+  private void addViewTypeMethodIfNeeded(GeneratedModelInfo modelInfo, List<MethodSpec> methods) {
+    MethodSpec getViewTypeMethod = MethodSpec.methodBuilder(GET_VIEW_TYPE_METHOD_NAME)
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PROTECTED)
+        .returns(TypeName.INT)
+        .build();
+
+    // Only the default implementation in EpoxyModelWithView needs replacing. Other models use their
+    // layout as their view type, or implement the method themselves.
+    ExecutableElement existingMethod =
+        getMethodOnClass(modelInfo.getSuperClassElement(), getViewTypeMethod, typeUtils);
+    if (existingMethod == null || !((TypeElement) existingMethod.getEnclosingElement())
+        .getQualifiedName().contentEquals(EPOXY_MODEL_WITH_VIEW_TYPE)) {
+      return;
+    }
+
+    String generatedName = modelInfo.getGeneratedName().toString();
+    int viewType = Integer.MIN_VALUE | (generatedName.hashCode() & GENERATED_VIEW_TYPE_MASK);
+
+    String modelWithSameViewType = generatedViewTypes.put(viewType, generatedName);
+    if (modelWithSameViewType != null && !modelWithSameViewType.equals(generatedName)) {
+      errorLogger.logError(
+          "Models %s and %s were generated with the same view type. Implement %s in one of them "
+              + "to give it a different view type.",
+          modelWithSameViewType, generatedName, GET_VIEW_TYPE_METHOD_NAME);
+    }
+
+    methods.add(getViewTypeMethod.toBuilder()
+        .addStatement("return $L", viewType)
+        .build());
+  }
+
   /**
    * If the model is a holder and doesn't implement the "createNewHolder" method we can generate a
    * default implementation by getting the class type and creating a new instance of it.
@@ -660,21 +879,19 @@ class GeneratedModelWriter {
     ClassName modelClickListenerType = getClassName(MODEL_CLICK_LISTENER_TYPE);
 
     // This creates a View.OnClickListener and sets it on the original model's click listener field.
-    // This click listener has an empty onClick implementation, and will be replaced in
-    // `handlePreBind`
-    // when we can create a functional click listener with the view holder we bind to.
-    // However, we use this stub version for now since it has the same hashCode implementation
-    // as the future click listener, so when we create the real click listener in `handlePreBind`
-    // it won't change the hashCode of the model.
+    // It is used for every bind of this model, and `handlePreBind` only points it at the view
+    // holder that the model is bound to. Its hashCode and equals come from the model click
+    // listener, so binding never changes the hashCode of the model.
     CodeBlock clickListenerCodeBlock = CodeBlock.of(
         "new $T($L)  {\n"
             + "        @Override\n"
             + "        protected void wrappedOnClick($T v, $T "
             + "originalClickListener) {\n"
-            + "          \n"
+            + "          callModelClickListener($T.this, v, originalClickListener);\n"
             + "        }\n"
             + "      }",
-        clickWrapperType, attributeName, viewType, modelClickListenerType);
+        clickWrapperType, attributeName, viewType, modelClickListenerType,
+        classInfo.getGeneratedName());
 
     addOnMutationCall(builder)
         .addStatement("this.$L = $L", attribute.getModelClickListenerName(), attributeName)
@@ -683,7 +900,9 @@ class GeneratedModelWriter {
         .endControlFlow()
         .beginControlFlow("else")
         .addStatement(attribute.setterCode(), clickListenerCodeBlock)
-        .endControlFlow()
+        .endControlFlow();
+
+    addHashCodeInvalidationIfNeeded(builder, classInfo)
         .addStatement("return this");
 
     return builder.build();
@@ -780,8 +999,16 @@ class GeneratedModelWriter {
     Builder builder = MethodSpec.methodBuilder("hashCode")
         .addAnnotation(Override.class)
         .addModifiers(PUBLIC)
-        .returns(int.class)
-        .addStatement("int result = super.hashCode()");
+        .returns(int.class);
+
+    boolean cacheHashCode = configManager.cachesHashCode(helperClass);
+    if (cacheHashCode) {
+      builder.beginControlFlow("if ($L)", hashCodeCachedFieldName())
+          .addStatement("return $L", cachedHashCodeFieldName())
+          .endControlFlow();
+    }
+
+    builder.addStatement("int result = super.hashCode()");
 
     addHashCodeLineForType(
         builder,
@@ -817,6 +1044,11 @@ class GeneratedModelWriter {
       addHashCodeLineForType(builder, attributeInfo.useInHash(), type, attributeInfo.getterCode());
     }
 
+    if (cacheHashCode) {
+      builder.addStatement("$L = result", cachedHashCodeFieldName())
+          .addStatement("$L = true", hashCodeCachedFieldName());
+    }
+
     return builder
         .addStatement("return result")
         .build();
@@ -909,7 +1141,7 @@ class GeneratedModelWriter {
       builder.addStatement("super.$L($L)", attributeName, attributeName);
     }
 
-    return builder
+    return addHashCodeInvalidationIfNeeded(builder, helperClass)
         .addStatement("return this")
         .build();
   }
@@ -933,8 +1165,9 @@ class GeneratedModelWriter {
       }
     }
 
-    return builder
-        .addStatement("super.reset()")
+    builder.addStatement("super.reset()");
+
+    return addHashCodeInvalidationIfNeeded(builder, helperClass)
         .addStatement("return this")
         .build();
   }
@@ -943,6 +1176,19 @@ class GeneratedModelWriter {
     return method.addStatement("onMutation()");
   }
 
+  /**
+   * If hashCode caching is enabled, clear the cached value so that the next hashCode call
+   * includes whatever the method changed.
+   */
+  private MethodSpec.Builder addHashCodeInvalidationIfNeeded(MethodSpec.Builder method,
+      GeneratedModelInfo modelInfo) {
+    if (configManager.cachesHashCode(modelInfo)) {
+      method.addStatement("$L = false", hashCodeCachedFieldName());
+    }
+
+    return method;
+  }
+
   private MethodSpec.Builder addHashCodeValidationIfNecessary(MethodSpec.Builder method,
       String message) {
     if (configManager.shouldValidateModelUsage()) {
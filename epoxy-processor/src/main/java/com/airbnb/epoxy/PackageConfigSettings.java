@@ -8,19 +8,22 @@ class PackageConfigSettings {
   final boolean requireHashCode;
   final boolean requireAbstractModels;
   final boolean implicitlyAddAutoModels;
+  final boolean cacheHashCode;
 
   private PackageConfigSettings(boolean requireHashCode, boolean requireAbstractModels,
-      boolean implicitlyAddAutoModels) {
+      boolean implicitlyAddAutoModels, boolean cacheHashCode) {
     this.requireHashCode = requireHashCode;
     this.requireAbstractModels = requireAbstractModels;
     this.implicitlyAddAutoModels = implicitlyAddAutoModels;
+    this.cacheHashCode = cacheHashCode;
   }
 
   static PackageConfigSettings forDefaults() {
     return new PackageConfigSettings(
         PackageEpoxyConfig.REQUIRE_HASHCODE_DEFAULT,
         PackageEpoxyConfig.REQUIRE_ABSTRACT_MODELS_DEFAULT,
-        PackageEpoxyConfig.IMPLICITLY_ADD_AUTO_MODELS_DEFAULT
+        PackageEpoxyConfig.IMPLICITLY_ADD_AUTO_MODELS_DEFAULT,
+        PackageEpoxyConfig.CACHE_HASHCODE_DEFAULT
     );
   }
 
@@ -28,6 +31,7 @@ class PackageConfigSettings {
     return new PackageConfigSettings(
         configAnnotation.requireHashCode(),
         configAnnotation.requireAbstractModels(),
-        configAnnotation.implicitlyAddAutoModels());
+        configAnnotation.implicitlyAddAutoModels(),
+        configAnnotation.cacheHashCode());
   }
 }
@@ -33,6 +33,9 @@ class Utils {
   static final String EPOXY_MODEL_TYPE = "com.airbnb.epoxy.EpoxyModel<?>";
   static final String UNTYPED_EPOXY_MODEL_TYPE = "com.airbnb.epoxy.EpoxyModel";
   static final String EPOXY_MODEL_WITH_HOLDER_TYPE = "com.airbnb.epoxy.EpoxyModelWithHolder<?>";
+  static final String UNTYPED_EPOXY_MODEL_WITH_HOLDER_TYPE =
+      "com.airbnb.epoxy.EpoxyModelWithHolder";
+  static final String EPOXY_MODEL_WITH_VIEW_TYPE = "com.airbnb.epoxy.EpoxyModelWithView";
   static final String EPOXY_VIEW_HOLDER_TYPE = "com.airbnb.epoxy.EpoxyViewHolder";
   static final String EPOXY_HOLDER_TYPE = "com.airbnb.epoxy.EpoxyHolder";
   static final String ANDROID_VIEW_TYPE = "android.view.View";
@@ -279,4 +279,19 @@ public class ConfigTest {
         .and()
         .generatesSources(generatedModel);
   }
+
+  @Test
+  public void testConfigCacheHashCode() {
+    JavaFileObject model =
+        forResource("ModelWithHashCodeCaching.java");
+
+    JavaFileObject generatedModel = JavaFileObjects.forResource("ModelWithHashCodeCaching_.java");
+
+    assert_().about(javaSource())
+        .that(model)
+        .processedWith(EpoxyProcessor.withHashCodeCaching())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedModel);
+  }
 }
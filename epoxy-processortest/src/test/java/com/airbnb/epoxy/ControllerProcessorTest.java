@@ -32,6 +32,25 @@ public class ControllerProcessorTest {
         .generatesSources(generatedHelper);
   }
 
+  @Test
+  public void generatesHelperFactoryForController() {
+    JavaFileObject model = JavaFileObjects
+        .forResource("BasicModelWithAttribute.java");
+
+    JavaFileObject controller = JavaFileObjects
+        .forResource("ControllerWithAutoModel.java");
+
+    JavaFileObject generatedFactory = JavaFileObjects
+        .forResource("ControllerWithAutoModel_EpoxyHelperFactory.java");
+
+    assert_().about(javaSources())
+        .that(asList(model, controller))
+        .processedWith(new EpoxyProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedFactory);
+  }
+
   @Test
   public void controllerWithAutoModelWithoutValidation() {
     JavaFileObject model = JavaFileObjects
@@ -154,6 +154,44 @@ public class ModelProcessorTest {
         .generatesSources(generatedModel);
   }
 
+  @Test
+  public void testModelClassWithChangedAttributeFlags() {
+    JavaFileObject model = JavaFileObjects
+        .forResource("ModelWithChangedAttributeFlags.java");
+
+    JavaFileObject generatedModel =
+        JavaFileObjects.forResource("ModelWithChangedAttributeFlags_.java");
+
+    assert_().about(javaSource())
+        .that(model)
+        .processedWith(new EpoxyProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedModel);
+  }
+
+  @Test
+  public void testChangedAttributeFlagsSkippedForGenericPreviouslyBoundModelBind() {
+    JavaFileObject model = JavaFileObjects
+        .forResource("ModelWithGenericPreviouslyBoundModelBind.java");
+
+    assert_().about(javaSource())
+        .that(model)
+        .processedWith(new EpoxyProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  public void testChangedAttributeFlagsSkippedWhenFlagNamesCollide() {
+    JavaFileObject model = JavaFileObjects
+        .forResource("ModelWithCollidingChangedAttributeFlags.java");
+
+    assert_().about(javaSource())
+        .that(model)
+        .processedWith(new EpoxyProcessor())
+        .compilesWithoutError();
+  }
+
   @Test
   public void testModelWithFinalAttribute() {
     JavaFileObject model = JavaFileObjects
@@ -678,4 +716,27 @@ public class ModelProcessorTest {
         .and()
         .generatesSources(generatedModel);
   }
+
+  @Test
+  public void modelWithViewGetsViewType() {
+    JavaFileObject model = JavaFileObjects
+        .forResource("ModelWithViewType.java");
+
+    assert_().about(javaSource())
+        .that(model)
+        .processedWith(new EpoxyProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  public void modelsWithSameGeneratedViewTypeFail() {
+    JavaFileObject model = JavaFileObjects
+        .forResource("ModelWithViewTypeCollision.java");
+
+    assert_().about(javaSource())
+        .that(model)
+        .processedWith(new EpoxyProcessor())
+        .failsToCompile()
+        .withErrorContaining("same view type");
+  }
 }
@@ -10,6 +10,8 @@ import java.lang.String;
 /**
  * Generated file. Do not modify! */
 public class AbstractModelWithHolder_ extends AbstractModelWithHolder implements GeneratedModel<AbstractModelWithHolder.Holder> {
+  public static final long ATTRIBUTE_VALUE = 1L << 0;
+
   private OnModelBoundListener<AbstractModelWithHolder_, AbstractModelWithHolder.Holder> onModelBoundListener_epoxyGeneratedModel;
 
   private OnModelUnboundListener<AbstractModelWithHolder_, AbstractModelWithHolder.Holder> onModelUnboundListener_epoxyGeneratedModel;
@@ -72,6 +74,20 @@ public class AbstractModelWithHolder_ extends AbstractModelWithHolder implements
     return this;
   }
 
+  @Override
+  public void bind(AbstractModelWithHolder.Holder object, EpoxyModel<?> previouslyBoundModel) {
+    if (!(previouslyBoundModel instanceof AbstractModelWithHolder_)) {
+      super.bind(object, previouslyBoundModel);
+      return;
+    }
+    AbstractModelWithHolder_ that = (AbstractModelWithHolder_) previouslyBoundModel;
+    long changedAttributes = 0;
+    if (value != that.value) {
+      changedAttributes |= ATTRIBUTE_VALUE;
+    }
+    bind(object, changedAttributes);
+  }
+
   public AbstractModelWithHolder_ value(int value) {
     onMutation();
     super.value = value;
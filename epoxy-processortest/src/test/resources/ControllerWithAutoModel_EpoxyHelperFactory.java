@@ -0,0 +1,15 @@
+package com.airbnb.epoxy.adapter;
+
+import com.airbnb.epoxy.ControllerHelper;
+import com.airbnb.epoxy.ControllerHelperFactory;
+import com.airbnb.epoxy.EpoxyController;
+import java.lang.Override;
+
+/**
+ * Generated file. Do not modify! */
+public class ControllerWithAutoModel_EpoxyHelperFactory implements ControllerHelperFactory {
+  @Override
+  public ControllerHelper<?> createHelper(EpoxyController controller) {
+    return new ControllerWithAutoModel_EpoxyHelper((ControllerWithAutoModel) controller);
+  }
+}
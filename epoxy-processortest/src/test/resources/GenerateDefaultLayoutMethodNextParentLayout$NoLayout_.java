@@ -10,6 +10,8 @@ import java.lang.String;
 /**
  * Generated file. Do not modify! */
 public class GenerateDefaultLayoutMethodNextParentLayout$NoLayout_ extends GenerateDefaultLayoutMethodNextParentLayout.NoLayout implements GeneratedModel<Object> {
+  public static final long ATTRIBUTE_VALUE = 1L << 0;
+
   private OnModelBoundListener<GenerateDefaultLayoutMethodNextParentLayout$NoLayout_, Object> onModelBoundListener_epoxyGeneratedModel;
 
   private OnModelUnboundListener<GenerateDefaultLayoutMethodNextParentLayout$NoLayout_, Object> onModelUnboundListener_epoxyGeneratedModel;
@@ -71,6 +73,20 @@ public class GenerateDefaultLayoutMethodNextParentLayout$NoLayout_ extends Gener
     return this;
   }
 
+  @Override
+  public void bind(Object object, EpoxyModel<?> previouslyBoundModel) {
+    if (!(previouslyBoundModel instanceof GenerateDefaultLayoutMethodNextParentLayout$NoLayout_)) {
+      super.bind(object, previouslyBoundModel);
+      return;
+    }
+    GenerateDefaultLayoutMethodNextParentLayout$NoLayout_ that = (GenerateDefaultLayoutMethodNextParentLayout$NoLayout_) previouslyBoundModel;
+    long changedAttributes = 0;
+    if (value != that.value) {
+      changedAttributes |= ATTRIBUTE_VALUE;
+    }
+    bind(object, changedAttributes);
+  }
+
   public GenerateDefaultLayoutMethodNextParentLayout$NoLayout_ value(int value) {
     onMutation();
     super.value = value;
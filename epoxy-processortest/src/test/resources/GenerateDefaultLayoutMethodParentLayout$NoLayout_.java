@@ -10,6 +10,8 @@ import java.lang.String;
 /**
  * Generated file. Do not modify! */
 public class GenerateDefaultLayoutMethodParentLayout$NoLayout_ extends GenerateDefaultLayoutMethodParentLayout.NoLayout implements GeneratedModel<Object> {
+  public static final long ATTRIBUTE_VALUE = 1L << 0;
+
   private OnModelBoundListener<GenerateDefaultLayoutMethodParentLayout$NoLayout_, Object> onModelBoundListener_epoxyGeneratedModel;
 
   private OnModelUnboundListener<GenerateDefaultLayoutMethodParentLayout$NoLayout_, Object> onModelUnboundListener_epoxyGeneratedModel;
@@ -71,6 +73,20 @@ public class GenerateDefaultLayoutMethodParentLayout$NoLayout_ extends GenerateD
     return this;
   }
 
+  @Override
+  public void bind(Object object, EpoxyModel<?> previouslyBoundModel) {
+    if (!(previouslyBoundModel instanceof GenerateDefaultLayoutMethodParentLayout$NoLayout_)) {
+      super.bind(object, previouslyBoundModel);
+      return;
+    }
+    GenerateDefaultLayoutMethodParentLayout$NoLayout_ that = (GenerateDefaultLayoutMethodParentLayout$NoLayout_) previouslyBoundModel;
+    long changedAttributes = 0;
+    if (value != that.value) {
+      changedAttributes |= ATTRIBUTE_VALUE;
+    }
+    bind(object, changedAttributes);
+  }
+
   public GenerateDefaultLayoutMethodParentLayout$NoLayout_ value(int value) {
     onMutation();
     super.value = value;
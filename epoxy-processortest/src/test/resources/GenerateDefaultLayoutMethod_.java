@@ -10,6 +10,8 @@ import java.lang.String;
 /**
  * Generated file. Do not modify! */
 public class GenerateDefaultLayoutMethod_ extends GenerateDefaultLayoutMethod implements GeneratedModel<Object> {
+  public static final long ATTRIBUTE_VALUE = 1L << 0;
+
   private OnModelBoundListener<GenerateDefaultLayoutMethod_, Object> onModelBoundListener_epoxyGeneratedModel;
 
   private OnModelUnboundListener<GenerateDefaultLayoutMethod_, Object> onModelUnboundListener_epoxyGeneratedModel;
@@ -71,6 +73,20 @@ public class GenerateDefaultLayoutMethod_ extends GenerateDefaultLayoutMethod im
     return this;
   }
 
+  @Override
+  public void bind(Object object, EpoxyModel<?> previouslyBoundModel) {
+    if (!(previouslyBoundModel instanceof GenerateDefaultLayoutMethod_)) {
+      super.bind(object, previouslyBoundModel);
+      return;
+    }
+    GenerateDefaultLayoutMethod_ that = (GenerateDefaultLayoutMethod_) previouslyBoundModel;
+    long changedAttributes = 0;
+    if (value != that.value) {
+      changedAttributes |= ATTRIBUTE_VALUE;
+    }
+    bind(object, changedAttributes);
+  }
+
   public GenerateDefaultLayoutMethod_ value(int value) {
     onMutation();
     super.value = value;
@@ -10,6 +10,8 @@ import java.lang.String;
 /**
  * Generated file. Do not modify! */
 public class ModelForRProcessingTest_ extends ModelForRProcessingTest implements GeneratedModel<Object> {
+  public static final long ATTRIBUTE_VALUE = 1L << 0;
+
   private OnModelBoundListener<ModelForRProcessingTest_, Object> onModelBoundListener_epoxyGeneratedModel;
 
   private OnModelUnboundListener<ModelForRProcessingTest_, Object> onModelUnboundListener_epoxyGeneratedModel;
@@ -71,6 +73,20 @@ public class ModelForRProcessingTest_ extends ModelForRProcessingTest implements
     return this;
   }
 
+  @Override
+  public void bind(Object object, EpoxyModel<?> previouslyBoundModel) {
+    if (!(previouslyBoundModel instanceof ModelForRProcessingTest_)) {
+      super.bind(object, previouslyBoundModel);
+      return;
+    }
+    ModelForRProcessingTest_ that = (ModelForRProcessingTest_) previouslyBoundModel;
+    long changedAttributes = 0;
+    if (value != that.value) {
+      changedAttributes |= ATTRIBUTE_VALUE;
+    }
+    bind(object, changedAttributes);
+  }
+
   public ModelForRProcessingTest_ value(int value) {
     onMutation();
     super.value = value;
@@ -11,6 +11,8 @@ import java.lang.String;
 /**
  * Generated file. Do not modify! */
 public class ModelForTestingDuplicateRValues_ extends ModelForTestingDuplicateRValues implements GeneratedModel<Object> {
+  public static final long ATTRIBUTE_VALUE = 1L << 0;
+
   private OnModelBoundListener<ModelForTestingDuplicateRValues_, Object> onModelBoundListener_epoxyGeneratedModel;
 
   private OnModelUnboundListener<ModelForTestingDuplicateRValues_, Object> onModelUnboundListener_epoxyGeneratedModel;
@@ -72,6 +74,20 @@ public class ModelForTestingDuplicateRValues_ extends ModelForTestingDuplicateRV
     return this;
   }
 
+  @Override
+  public void bind(Object object, EpoxyModel<?> previouslyBoundModel) {
+    if (!(previouslyBoundModel instanceof ModelForTestingDuplicateRValues_)) {
+      super.bind(object, previouslyBoundModel);
+      return;
+    }
+    ModelForTestingDuplicateRValues_ that = (ModelForTestingDuplicateRValues_) previouslyBoundModel;
+    long changedAttributes = 0;
+    if (value != that.value) {
+      changedAttributes |= ATTRIBUTE_VALUE;
+    }
+    bind(object, changedAttributes);
+  }
+
   public ModelForTestingDuplicateRValues_ value(int value) {
     onMutation();
     super.value = value;
@@ -0,0 +1,15 @@
+package com.airbnb.epoxy;
+
+import com.airbnb.epoxy.EpoxyAttribute.Option;
+
+@EpoxyModelClass
+public class ModelWithChangedAttributeFlags extends EpoxyModel<Object> {
+  @EpoxyAttribute int value;
+  @EpoxyAttribute({Option.DoNotHash}) int value2;
+  @EpoxyAttribute({Option.DoNotHash}) String value3;
+
+  @Override
+  protected int getDefaultLayout() {
+    return 0;
+  }
+}
\ No newline at end of file
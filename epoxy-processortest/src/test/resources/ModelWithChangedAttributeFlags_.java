@@ -0,0 +1,240 @@
+package com.airbnb.epoxy;
+
+import android.support.annotation.LayoutRes;
+import java.lang.CharSequence;
+import java.lang.Number;
+import java.lang.Object;
+import java.lang.Override;
+import java.lang.String;
+
+/**
+ * Generated file. Do not modify! */
+public class ModelWithChangedAttributeFlags_ extends ModelWithChangedAttributeFlags implements GeneratedModel<Object> {
+  public static final long ATTRIBUTE_VALUE2 = 1L << 0;
+
+  public static final long ATTRIBUTE_VALUE = 1L << 1;
+
+  public static final long ATTRIBUTE_VALUE3 = 1L << 2;
+
+  private OnModelBoundListener<ModelWithChangedAttributeFlags_, Object> onModelBoundListener_epoxyGeneratedModel;
+
+  private OnModelUnboundListener<ModelWithChangedAttributeFlags_, Object> onModelUnboundListener_epoxyGeneratedModel;
+
+  public ModelWithChangedAttributeFlags_() {
+    super();
+  }
+
+  @Override
+  public void addTo(EpoxyController controller) {
+    super.addTo(controller);
+    addWithDebugValidation(controller);
+  }
+
+  @Override
+  public void handlePreBind(final EpoxyViewHolder holder, final Object object, int position) {
+    validateStateHasNotChangedSinceAdded("The model was changed between being added to the controller and being bound.", position);
+  }
+
+  @Override
+  public void handlePostBind(final Object object, int position) {
+    if (onModelBoundListener_epoxyGeneratedModel != null) {
+      onModelBoundListener_epoxyGeneratedModel.onModelBound(this, object, position);
+    }
+    validateStateHasNotChangedSinceAdded("The model was changed during the bind call.", position);
+  }
+
+  /**
+   * Register a listener that will be called when this model is bound to a view.
+   * <p>
+   * The listener will contribute to this model's hashCode state per the {@link
+   * com.airbnb.epoxy.EpoxyAttribute.Option#DoNotHash} rules.
+   * <p>
+   * You may clear the listener by setting a null value, or by calling {@link #reset()} */
+  public ModelWithChangedAttributeFlags_ onBind(OnModelBoundListener<ModelWithChangedAttributeFlags_, Object> listener) {
+    onMutation();
+    this.onModelBoundListener_epoxyGeneratedModel = listener;
+    return this;
+  }
+
+  @Override
+  public void unbind(Object object) {
+    super.unbind(object);
+    if (onModelUnboundListener_epoxyGeneratedModel != null) {
+      onModelUnboundListener_epoxyGeneratedModel.onModelUnbound(this, object);
+    }
+  }
+
+  /**
+   * Register a listener that will be called when this model is unbound from a view.
+   * <p>
+   * The listener will contribute to this model's hashCode state per the {@link
+   * com.airbnb.epoxy.EpoxyAttribute.Option#DoNotHash} rules.
+   * <p>
+   * You may clear the listener by setting a null value, or by calling {@link #reset()} */
+  public ModelWithChangedAttributeFlags_ onUnbind(OnModelUnboundListener<ModelWithChangedAttributeFlags_, Object> listener) {
+    onMutation();
+    this.onModelUnboundListener_epoxyGeneratedModel = listener;
+    return this;
+  }
+
+  @Override
+  public void bind(Object object, EpoxyModel<?> previouslyBoundModel) {
+    if (!(previouslyBoundModel instanceof ModelWithChangedAttributeFlags_)) {
+      super.bind(object, previouslyBoundModel);
+      return;
+    }
+    ModelWithChangedAttributeFlags_ that = (ModelWithChangedAttributeFlags_) previouslyBoundModel;
+    long changedAttributes = 0;
+    if (value2 != that.value2) {
+      changedAttributes |= ATTRIBUTE_VALUE2;
+    }
+    if (value != that.value) {
+      changedAttributes |= ATTRIBUTE_VALUE;
+    }
+    if (value3 != that.value3) {
+      changedAttributes |= ATTRIBUTE_VALUE3;
+    }
+    bind(object, changedAttributes);
+  }
+
+  public ModelWithChangedAttributeFlags_ value2(int value2) {
+    onMutation();
+    super.value2 = value2;
+    return this;
+  }
+
+  public int value2() {
+    return value2;
+  }
+
+  public ModelWithChangedAttributeFlags_ value(int value) {
+    onMutation();
+    super.value = value;
+    return this;
+  }
+
+  public int value() {
+    return value;
+  }
+
+  public ModelWithChangedAttributeFlags_ value3(String value3) {
+    onMutation();
+    super.value3 = value3;
+    return this;
+  }
+
+  public String value3() {
+    return value3;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ id(long id) {
+    super.id(id);
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ id(Number... ids) {
+    super.id(ids);
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ id(long id1, long id2) {
+    super.id(id1, id2);
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ id(CharSequence key) {
+    super.id(key);
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ id(CharSequence key, long id) {
+    super.id(key, id);
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ layout(@LayoutRes int arg0) {
+    super.layout(arg0);
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ show() {
+    super.show();
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ show(boolean show) {
+    super.show(show);
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ hide() {
+    super.hide();
+    return this;
+  }
+
+  @Override
+  public ModelWithChangedAttributeFlags_ reset() {
+    onModelBoundListener_epoxyGeneratedModel = null;
+    onModelUnboundListener_epoxyGeneratedModel = null;
+    super.value2 = 0;
+    super.value = 0;
+    super.value3 = null;
+    super.reset();
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof ModelWithChangedAttributeFlags_)) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    ModelWithChangedAttributeFlags_ that = (ModelWithChangedAttributeFlags_) o;
+    if ((onModelBoundListener_epoxyGeneratedModel == null) != (that.onModelBoundListener_epoxyGeneratedModel == null)) {
+      return false;
+    }
+    if ((onModelUnboundListener_epoxyGeneratedModel == null) != (that.onModelUnboundListener_epoxyGeneratedModel == null)) {
+      return false;
+    }
+    if (value != that.value) {
+      return false;
+    }
+    if ((value3 == null) != (that.value3 == null)) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = super.hashCode();
+    result = 31 * result + (onModelBoundListener_epoxyGeneratedModel != null ? 1 : 0);
+    result = 31 * result + (onModelUnboundListener_epoxyGeneratedModel != null ? 1 : 0);
+    result = 31 * result + value;
+    result = 31 * result + (value3 != null ? 1 : 0);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "ModelWithChangedAttributeFlags_{" +
+        "value2=" + value2 +
+        ", value=" + value +
+        ", value3=" + value3 +
+        "}" + super.toString();
+  }
+}
\ No newline at end of file
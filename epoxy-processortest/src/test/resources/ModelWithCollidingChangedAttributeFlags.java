@@ -0,0 +1,12 @@
+package com.airbnb.epoxy;
+
+@EpoxyModelClass
+public class ModelWithCollidingChangedAttributeFlags extends EpoxyModel<Object> {
+  @EpoxyAttribute int imageUrl;
+  @EpoxyAttribute int image_url;
+
+  @Override
+  protected int getDefaultLayout() {
+    return 0;
+  }
+}
@@ -0,0 +1,21 @@
+package com.airbnb.epoxy;
+
+@EpoxyModelClass
+public class ModelWithGenericPreviouslyBoundModelBind
+    extends BaseModelWithGenericPreviouslyBoundModelBind<Object> {
+  @EpoxyAttribute int value;
+
+  @Override
+  protected int getDefaultLayout() {
+    return 0;
+  }
+}
+
+abstract class BaseModelWithGenericPreviouslyBoundModelBind<V> extends EpoxyModel<V> {
+
+  // Final so that the generated model fails to compile if it overrides this
+  @Override
+  public final void bind(V view, EpoxyModel<?> previouslyBoundModel) {
+    super.bind(view, previouslyBoundModel);
+  }
+}
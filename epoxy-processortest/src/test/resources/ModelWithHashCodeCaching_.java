@@ -0,0 +1,208 @@
+package com.airbnb.epoxy;
+
+import android.support.annotation.LayoutRes;
+import java.lang.CharSequence;
+import java.lang.Number;
+import java.lang.Object;
+import java.lang.Override;
+import java.lang.String;
+
+/**
+ * Generated file. Do not modify! */
+public class ModelWithHashCodeCaching_ extends ModelWithHashCodeCaching implements GeneratedModel<Object> {
+  private OnModelBoundListener<ModelWithHashCodeCaching_, Object> onModelBoundListener_epoxyGeneratedModel;
+
+  private OnModelUnboundListener<ModelWithHashCodeCaching_, Object> onModelUnboundListener_epoxyGeneratedModel;
+
+  private int cachedHashCode_epoxyGeneratedModel;
+
+  private boolean hashCodeCached_epoxyGeneratedModel;
+
+  public ModelWithHashCodeCaching_() {
+    super();
+  }
+
+  @Override
+  public void addTo(EpoxyController controller) {
+    super.addTo(controller);
+    addWithDebugValidation(controller);
+  }
+
+  @Override
+  public void handlePreBind(final EpoxyViewHolder holder, final Object object, int position) {
+    validateStateHasNotChangedSinceAdded("The model was changed between being added to the controller and being bound.", position);
+  }
+
+  @Override
+  public void handlePostBind(final Object object, int position) {
+    if (onModelBoundListener_epoxyGeneratedModel != null) {
+      onModelBoundListener_epoxyGeneratedModel.onModelBound(this, object, position);
+    }
+    validateStateHasNotChangedSinceAdded("The model was changed during the bind call.", position);
+  }
+
+  /**
+   * Register a listener that will be called when this model is bound to a view.
+   * <p>
+   * The listener will contribute to this model's hashCode state per the {@link
+   * com.airbnb.epoxy.EpoxyAttribute.Option#DoNotHash} rules.
+   * <p>
+   * You may clear the listener by setting a null value, or by calling {@link #reset()} */
+  public ModelWithHashCodeCaching_ onBind(OnModelBoundListener<ModelWithHashCodeCaching_, Object> listener) {
+    onMutation();
+    this.onModelBoundListener_epoxyGeneratedModel = listener;
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public void unbind(Object object) {
+    super.unbind(object);
+    if (onModelUnboundListener_epoxyGeneratedModel != null) {
+      onModelUnboundListener_epoxyGeneratedModel.onModelUnbound(this, object);
+    }
+  }
+
+  /**
+   * Register a listener that will be called when this model is unbound from a view.
+   * <p>
+   * The listener will contribute to this model's hashCode state per the {@link
+   * com.airbnb.epoxy.EpoxyAttribute.Option#DoNotHash} rules.
+   * <p>
+   * You may clear the listener by setting a null value, or by calling {@link #reset()} */
+  public ModelWithHashCodeCaching_ onUnbind(OnModelUnboundListener<ModelWithHashCodeCaching_, Object> listener) {
+    onMutation();
+    this.onModelUnboundListener_epoxyGeneratedModel = listener;
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  public ModelWithHashCodeCaching_ value(int value) {
+    onMutation();
+    super.value = value;
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  public int value() {
+    return value;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ id(long id) {
+    super.id(id);
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ id(Number... ids) {
+    super.id(ids);
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ id(long id1, long id2) {
+    super.id(id1, id2);
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ id(CharSequence key) {
+    super.id(key);
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ id(CharSequence key, long id) {
+    super.id(key, id);
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ layout(@LayoutRes int arg0) {
+    super.layout(arg0);
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ show() {
+    super.show();
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ show(boolean show) {
+    super.show(show);
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ hide() {
+    super.hide();
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public ModelWithHashCodeCaching_ reset() {
+    onModelBoundListener_epoxyGeneratedModel = null;
+    onModelUnboundListener_epoxyGeneratedModel = null;
+    super.value = 0;
+    super.reset();
+    hashCodeCached_epoxyGeneratedModel = false;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof ModelWithHashCodeCaching_)) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    ModelWithHashCodeCaching_ that = (ModelWithHashCodeCaching_) o;
+    if ((onModelBoundListener_epoxyGeneratedModel == null) != (that.onModelBoundListener_epoxyGeneratedModel == null)) {
+      return false;
+    }
+    if ((onModelUnboundListener_epoxyGeneratedModel == null) != (that.onModelUnboundListener_epoxyGeneratedModel == null)) {
+      return false;
+    }
+    if (value != that.value) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    if (hashCodeCached_epoxyGeneratedModel) {
+      return cachedHashCode_epoxyGeneratedModel;
+    }
+    int result = super.hashCode();
+    result = 31 * result + (onModelBoundListener_epoxyGeneratedModel != null ? 1 : 0);
+    result = 31 * result + (onModelUnboundListener_epoxyGeneratedModel != null ? 1 : 0);
+    result = 31 * result + value;
+    cachedHashCode_epoxyGeneratedModel = result;
+    hashCodeCached_epoxyGeneratedModel = true;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "ModelWithHashCodeCaching_{" +
+        "value=" + value +
+        "}" + super.toString();
+  }
+}
\ No newline at end of file
@@ -31,13 +31,7 @@ public class ModelWithPrivateViewClickListener_ extends ModelWithPrivateViewClic
   public void handlePreBind(final EpoxyViewHolder holder, final Object object, int position) {
     validateStateHasNotChangedSinceAdded("The model was changed between being added to the controller and being bound.", position);
     if (clickListener_epoxyGeneratedModel != null) {
-      super.setClickListener(new WrappedEpoxyModelClickListener(clickListener_epoxyGeneratedModel) {
-              @Override
-              protected void wrappedOnClick(View v, OnModelClickListener originalClickListener) {
-                 originalClickListener.onClick(com.airbnb.epoxy.ModelWithPrivateViewClickListener_.this, object, v,
-                        holder.getAdapterPosition());
-                 }
-              });
+      holder.bindModelClickListener(getClickListener());
     }
   }
 
@@ -95,7 +89,7 @@ public class ModelWithPrivateViewClickListener_ extends ModelWithPrivateViewClic
       super.setClickListener(new WrappedEpoxyModelClickListener(clickListener)  {
                   @Override
                   protected void wrappedOnClick(View v, OnModelClickListener originalClickListener) {
-                    
+                    callModelClickListener(ModelWithPrivateViewClickListener_.this, v, originalClickListener);
                   }
                 });
     }
@@ -31,13 +31,7 @@ public class ModelWithViewClickListener_ extends ModelWithViewClickListener impl
   public void handlePreBind(final EpoxyViewHolder holder, final Object object, int position) {
     validateStateHasNotChangedSinceAdded("The model was changed between being added to the controller and being bound.", position);
     if (clickListener_epoxyGeneratedModel != null) {
-      super.clickListener = new WrappedEpoxyModelClickListener(clickListener_epoxyGeneratedModel) {
-              @Override
-              protected void wrappedOnClick(View v, OnModelClickListener originalClickListener) {
-                 originalClickListener.onClick(com.airbnb.epoxy.ModelWithViewClickListener_.this, object, v,
-                        holder.getAdapterPosition());
-                 }
-              };
+      holder.bindModelClickListener(clickListener);
     }
   }
 
@@ -95,7 +89,7 @@ public class ModelWithViewClickListener_ extends ModelWithViewClickListener impl
       super.clickListener = new WrappedEpoxyModelClickListener(clickListener)  {
                   @Override
                   protected void wrappedOnClick(View v, OnModelClickListener originalClickListener) {
-                    
+                    callModelClickListener(ModelWithViewClickListener_.this, v, originalClickListener);
                   }
                 };
     }
@@ -0,0 +1,34 @@
+package com.airbnb.epoxy;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+public class ModelWithViewType {
+  // Gets a generated view type, since it creates its view in code and doesn't implement
+  // getViewType
+
+  public static abstract class GeneratedViewType extends EpoxyModelWithView<View> {
+    @EpoxyAttribute int value;
+
+    @Override
+    protected View buildView(ViewGroup parent) {
+      return new View(parent.getContext());
+    }
+  }
+
+  // Keeps its own view type
+
+  public static abstract class OwnViewType extends EpoxyModelWithView<View> {
+    @EpoxyAttribute int value;
+
+    @Override
+    protected int getViewType() {
+      return 1;
+    }
+
+    @Override
+    protected View buildView(ViewGroup parent) {
+      return new View(parent.getContext());
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.airbnb.epoxy;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+public class ModelWithViewTypeCollision {
+  // "Aa" and "BB" have the same String hashCode, so the view types generated from the names of
+  // these models are the same
+
+  public static abstract class Aa extends EpoxyModelWithView<View> {
+    @EpoxyAttribute int value;
+
+    @Override
+    protected View buildView(ViewGroup parent) {
+      return new View(parent.getContext());
+    }
+  }
+
+  public static abstract class BB extends EpoxyModelWithView<View> {
+    @EpoxyAttribute int value;
+
+    @Override
+    protected View buildView(ViewGroup parent) {
+      return new View(parent.getContext());
+    }
+  }
+}